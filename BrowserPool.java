@@ -0,0 +1,203 @@
+import org.openqa.selenium.WebDriver;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size pool of pre-launched browser sessions that are reused across crawl jobs,
+ * so a job pays for a page load instead of a JVM + Chrome + chromedriver start.
+ *
+ * Each session's SessionHealth is checked when it comes back and by monitor(): sessions past a
+ * threshold, unresponsive or crashed are quit and replaced by a fresh launch.
+ */
+public class BrowserPool {
+
+    private final String name;
+    private final int targetSize;
+    private final Supplier<WebDriver> factory;
+    private final BlockingQueue<WebDriver> idle = new LinkedBlockingQueue<>();
+    private final List<WebDriver> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger recycled = new AtomicInteger();
+
+    public BrowserPool(String name, int size, Supplier<WebDriver> factory) {
+        this.name = name;
+        this.targetSize = size;
+        this.factory = factory;
+        for (int i = 0; i < size; i++) {
+            launch();
+        }
+        ScraperLog.info("browser pool warmed up", "pool", name, "sessions", size);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Sessions replaced so far because of a threshold or a failure
+     */
+    public int recycledCount() {
+        return recycled.get();
+    }
+
+    /**
+     * Borrow a warm session, waiting until one is free
+     */
+    public WebDriver acquire() throws InterruptedException {
+        WebDriver driver = idle.take();
+        SessionHealth health = SessionHealth.of(driver);
+        if (health != null) {
+            health.jobStarted();
+        }
+        return driver;
+    }
+
+    /**
+     * Return a session after a job. It is probed first (so heap and DOM size are those of the job's last page),
+     * recycled when past a threshold, otherwise parked on about:blank so the next job starts from a clean page
+     */
+    public void release(WebDriver driver) {
+        SessionHealth health = SessionHealth.of(driver);
+        if (health != null) {
+            health.jobFinished();
+            health.probe(driver);
+            String reason = health.recycleReason();
+            if (reason != null) {
+                recycle(driver, reason);
+                return;
+            }
+        }
+        try {
+            // Close tabs a job left behind, keep the first one
+            List<String> handles = new java.util.ArrayList<>(driver.getWindowHandles());
+            for (int i = 1; i < handles.size(); i++) {
+                CdpTransport.close(driver, handles.get(i));
+                driver.switchTo().window(handles.get(i)).close();
+            }
+            driver.switchTo().window(handles.get(0));
+            driver.get("about:blank");
+            idle.add(driver);
+        } catch (Exception e) {
+            ScraperLog.warn("session failed on release, replacing it", "pool", name, "error", e.getMessage());
+            discard(driver);
+        }
+    }
+
+    /**
+     * Whether a session that threw during a job is still usable; a dead or hung one is marked broken
+     */
+    public boolean isResponsive(WebDriver driver) {
+        SessionHealth health = SessionHealth.of(driver);
+        return health == null || health.probe(driver);
+    }
+
+    /**
+     * Drop a broken session and launch a fresh one in its place
+     */
+    public void discard(WebDriver driver) {
+        if (!sessions.remove(driver)) {
+            return; // already replaced
+        }
+        SessionHealth.forget(driver);
+        quit(driver);
+        try {
+            launch();
+        } catch (Exception e) {
+            ScraperLog.error("could not launch replacement session", "pool", name, "error", e.getMessage());
+        }
+    }
+
+    /**
+     * Periodic check: probe idle sessions and recycle the unhealthy ones, kill busy ones that completed no
+     * command for SessionHealth.STALL_MILLIS (the job holding one then fails and is rescheduled), and relaunch
+     * sessions that could not be replaced earlier. Busy sessions are not probed: the probe would wait behind
+     * the job's own command and kill a session that is merely slow.
+     */
+    public void monitor() {
+        for (WebDriver driver : sessions) {
+            SessionHealth health = SessionHealth.of(driver);
+            if (health == null) {
+                continue;
+            }
+            if (idle.remove(driver)) {
+                health.probe(driver); // a failed probe marks the session broken
+                String reason = health.recycleReason();
+                if (reason != null) {
+                    recycle(driver, reason);
+                } else {
+                    idle.add(driver);
+                }
+            } else if (!health.isBroken() && SessionHealth.STALL_MILLIS > 0 && health.stalledMillis() > SessionHealth.STALL_MILLIS) {
+                // Busy and hung: quitting makes the job's pending command fail instead of waiting out every timeout
+                health.markBroken("no command completed for " + health.stalledMillis() / 1000 + " s");
+                ScraperLog.warn("busy session stopped answering, killing it", "pool", name, "health", health.summary());
+                quit(driver);
+            }
+        }
+        while (sessions.size() < targetSize) {
+            try {
+                launch();
+            } catch (Exception e) {
+                ScraperLog.error("could not relaunch session", "pool", name, "error", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * One line per session: idle or busy and its health
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        int index = 0;
+        for (WebDriver driver : sessions) {
+            SessionHealth health = SessionHealth.of(driver);
+            report.append(name).append('#').append(++index).append(idle.contains(driver) ? " idle " : " busy ")
+                    .append(health == null ? "untracked" : health.summary()).append('\n');
+        }
+        return report.toString();
+    }
+
+    private void recycle(WebDriver driver, String reason) {
+        recycled.incrementAndGet();
+        SessionHealth health = SessionHealth.of(driver);
+        ScraperLog.info("recycling browser session", "pool", name, "reason", reason, "health", health == null ? "" : health.summary());
+        discard(driver);
+    }
+
+    private void launch() {
+        WebDriver driver = factory.get();
+        SessionHealth.track(driver);
+        sessions.add(driver);
+        idle.add(driver);
+    }
+
+    private void quit(WebDriver driver) {
+        CdpTransport.closeAll(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            ScraperLog.warn("error quitting session", "pool", name, "error", e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        for (WebDriver driver : sessions) {
+            SessionHealth.forget(driver);
+            quit(driver);
+        }
+        sessions.clear();
+        idle.clear();
+    }
+}
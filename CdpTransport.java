@@ -0,0 +1,334 @@
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Persistent Chrome DevTools Protocol connection for the hot command paths.
+ * Classic WebDriver sends every findElement / getText / executeScript as its own HTTP round trip
+ * through chromedriver. This transport talks to the page target directly over one WebSocket:
+ * commands are pipelined (many in flight, matched back by id) and results arrive asynchronously.
+ *
+ * Enabled with -Dscraper.cdp=true. When it is off or the connection fails, forDriver returns null
+ * and callers stay on the classic WebDriver path, so extracted data is the same either way.
+ * A transport whose socket errored or whose command timed out is dropped and reconnected on next use.
+ */
+public class CdpTransport {
+
+    private static final Map<WebDriver, Map<String, CdpTransport>> TRANSPORTS = new WeakHashMap<>();
+    private static final HttpClient HTTP = HttpClient.newHttpClient();
+    private static final long COMMAND_TIMEOUT_MILLIS = 30_000L;
+
+    private final WebSocket socket;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<Integer, CompletableFuture<Map<String, Object>>> pending = new ConcurrentHashMap<>();
+    private final Map<String, List<Consumer<Map<String, Object>>>> eventListeners = new ConcurrentHashMap<>();
+    private CompletableFuture<WebSocket> sendChain;
+    private volatile boolean pageEventsEnabled;
+    private volatile boolean failed;
+
+    private CdpTransport(String webSocketUrl) {
+        this.socket = HTTP.newWebSocketBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .buildAsync(URI.create(webSocketUrl), new Listener())
+            .join();
+        this.sendChain = CompletableFuture.completedFuture(socket);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("scraper.cdp");
+    }
+
+    /**
+     * Transport for the tab the driver currently points at, connected lazily and reused afterwards.
+     * Returns null when the transport is disabled or unavailable.
+     */
+    public static CdpTransport forDriver(WebDriver driver) {
+        if (!isEnabled()) {
+            return null;
+        }
+        synchronized (TRANSPORTS) {
+            Map<String, CdpTransport> byWindow = TRANSPORTS.computeIfAbsent(driver, d -> new ConcurrentHashMap<>());
+            String handle;
+            try {
+                handle = driver.getWindowHandle();
+            } catch (Exception e) {
+                return null;
+            }
+            CdpTransport transport = byWindow.get(handle);
+            if (transport != null && transport.failed) {
+                byWindow.remove(handle);
+                transport.close();
+                transport = null;
+            }
+            if (transport == null) {
+                try {
+                    transport = new CdpTransport(findWebSocketUrl(driver, handle));
+                    byWindow.put(handle, transport);
+                } catch (Exception e) {
+                    ScraperLog.warn("DevTools transport unavailable, using classic WebDriver", "error", e.getMessage());
+                    return null;
+                }
+            }
+            return transport;
+        }
+    }
+
+    /**
+     * Navigate through the DevTools transport when enabled, otherwise through classic driver.get
+     */
+    public static void get(WebDriver driver, String url) {
+        ScraperLog.put("url", url);
+        SessionHealth.pageLoaded(driver);
+        CdpTransport transport = forDriver(driver);
+        if (transport == null) {
+            driver.get(url);
+            return;
+        }
+        try {
+            transport.navigate(url, Duration.ofSeconds(30));
+        } catch (Exception e) {
+            ScraperLog.warn("DevTools navigation failed, retrying with driver.get", "error", e.getMessage());
+            transport.failed = true;
+            driver.get(url);
+        }
+    }
+
+    /**
+     * Close the transport of one tab (call before closing the tab through WebDriver)
+     */
+    public static void close(WebDriver driver, String handle) {
+        CdpTransport transport;
+        synchronized (TRANSPORTS) {
+            Map<String, CdpTransport> byWindow = TRANSPORTS.get(driver);
+            transport = byWindow == null ? null : byWindow.remove(handle);
+        }
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    /**
+     * Close every transport opened for this driver (call before driver.quit())
+     */
+    public static void closeAll(WebDriver driver) {
+        Map<String, CdpTransport> byWindow;
+        synchronized (TRANSPORTS) {
+            byWindow = TRANSPORTS.remove(driver);
+        }
+        if (byWindow != null) {
+            for (CdpTransport transport : byWindow.values()) {
+                transport.close();
+            }
+        }
+    }
+
+    // chromedriver reports the browser's debugger address; the page target id is the window handle
+    @SuppressWarnings("unchecked")
+    private static String findWebSocketUrl(WebDriver driver, String handle) throws Exception {
+        Map<String, Object> chromeOptions = (Map<String, Object>) ((HasCapabilities) driver).getCapabilities().getCapability("goog:chromeOptions");
+        if (chromeOptions == null || chromeOptions.get("debuggerAddress") == null) {
+            throw new IllegalStateException("no debuggerAddress capability");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://" + chromeOptions.get("debuggerAddress") + "/json/list"))
+            .timeout(Duration.ofSeconds(5)).build();
+        List<Object> targets = (List<Object>) Json.parse(HTTP.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        String targetId = handle.startsWith("CDwindow-") ? handle.substring("CDwindow-".length()) : handle;
+        String fallback = null;
+        for (Object item : targets) {
+            Map<String, Object> target = (Map<String, Object>) item;
+            if (!"page".equals(target.get("type"))) {
+                continue;
+            }
+            if (targetId.equalsIgnoreCase(String.valueOf(target.get("id")))) {
+                return (String) target.get("webSocketDebuggerUrl");
+            }
+            if (fallback == null) {
+                fallback = (String) target.get("webSocketDebuggerUrl");
+            }
+        }
+        if (fallback == null) {
+            throw new IllegalStateException("no page target found");
+        }
+        return fallback;
+    }
+
+    /**
+     * Send a DevTools command without waiting; the future completes with the command's result object
+     */
+    public CompletableFuture<Map<String, Object>> send(String method, Map<String, Object> params) {
+        int id = nextId.getAndIncrement();
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("id", id);
+        message.put("method", method);
+        message.put("params", params == null ? Collections.emptyMap() : params);
+        CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        pending.put(id, result);
+        String json = Json.write(message);
+        // WebSocket allows one outstanding sendText at a time: chain the writes, not the responses
+        synchronized (this) {
+            sendChain = sendChain.thenCompose(ws -> ws.sendText(json, true));
+            sendChain.exceptionally(e -> {
+                pending.remove(id);
+                result.completeExceptionally(e);
+                return null;
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate an expression in the page and return its JSON value (promises are awaited)
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Object> evaluate(String expression) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("expression", expression);
+        params.put("returnByValue", true);
+        params.put("awaitPromise", true);
+        return send("Runtime.evaluate", params).thenApply(response -> {
+            if (response.containsKey("exceptionDetails")) {
+                Map<String, Object> details = (Map<String, Object>) response.get("exceptionDetails");
+                throw new IllegalStateException("Script error: " + details.get("text"));
+            }
+            Map<String, Object> remote = (Map<String, Object>) response.get("result");
+            return remote == null ? null : remote.get("value");
+        });
+    }
+
+    /**
+     * Run a function body written for executeScript ("return ...", arguments[n]) and wait for its value
+     */
+    public Object callFunction(String body, Object... args) {
+        String expression = "(function () {" + body + "}).apply(null, " + Json.write(args) + ")";
+        return await(evaluate(expression), COMMAND_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Navigate and wait for the load event, without chromedriver's polling of the page load state
+     */
+    public void navigate(String url, Duration timeout) {
+        if (!pageEventsEnabled) {
+            await(send("Page.enable", null), COMMAND_TIMEOUT_MILLIS);
+            pageEventsEnabled = true;
+        }
+        CompletableFuture<Map<String, Object>> loaded = once("Page.loadEventFired");
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("url", url);
+        await(send("Page.navigate", params), COMMAND_TIMEOUT_MILLIS);
+        await(loaded, timeout.toMillis());
+    }
+
+    // Wait for a reply; anything but a script or protocol error (timeout, socket failure) marks the transport failed
+    private <T> T await(CompletableFuture<T> future, long timeoutMillis) {
+        try {
+            return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof IllegalStateException)) {
+                failed = true;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Future for the next occurrence of a DevTools event
+     */
+    public CompletableFuture<Map<String, Object>> once(String eventMethod) {
+        CompletableFuture<Map<String, Object>> next = new CompletableFuture<>();
+        List<Consumer<Map<String, Object>>> listeners = eventListeners.computeIfAbsent(eventMethod, m -> new CopyOnWriteArrayList<>());
+        Consumer<Map<String, Object>> listener = new Consumer<Map<String, Object>>() {
+            @Override
+            public void accept(Map<String, Object> params) {
+                listeners.remove(this);
+                next.complete(params);
+            }
+        };
+        listeners.add(listener);
+        return next;
+    }
+
+    public void close() {
+        failed = true;
+        try {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").orTimeout(2, TimeUnit.SECONDS).join();
+        } catch (Exception e) {
+            socket.abort();
+        }
+        for (CompletableFuture<Map<String, Object>> future : pending.values()) {
+            future.completeExceptionally(new IllegalStateException("DevTools transport closed"));
+        }
+        pending.clear();
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                Map<String, Object> message = (Map<String, Object>) Json.parse(buffer.toString());
+                buffer.setLength(0);
+                Object id = message.get("id");
+                if (id != null) {
+                    CompletableFuture<Map<String, Object>> future = pending.remove(((Number) id).intValue());
+                    if (future != null) {
+                        if (message.containsKey("error")) {
+                            future.completeExceptionally(new IllegalStateException("DevTools error: " + message.get("error")));
+                        } else {
+                            future.complete((Map<String, Object>) message.get("result"));
+                        }
+                    }
+                } else {
+                    List<Consumer<Map<String, Object>>> listeners = eventListeners.get(String.valueOf(message.get("method")));
+                    if (listeners != null) {
+                        for (Consumer<Map<String, Object>> listener : listeners) {
+                            listener.accept((Map<String, Object>) message.get("params"));
+                        }
+                    }
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            failed = true;
+            for (CompletableFuture<Map<String, Object>> future : pending.values()) {
+                future.completeExceptionally(error);
+            }
+            pending.clear();
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            // Chrome closed the socket (tab gone, browser quit): nothing pending will ever be answered
+            failed = true;
+            for (CompletableFuture<Map<String, Object>> future : pending.values()) {
+                future.completeExceptionally(new IllegalStateException("DevTools socket closed: " + statusCode + " " + reason));
+            }
+            pending.clear();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-browser main-content extraction.
+ * Instead of pulling every //p, //li or //h2 in the document one WebElement at a time, a single script
+ * locates the main content region (main / article / densest text container), skips header, footer,
+ * navigation, cookie banners and hidden elements, and returns only the visible content blocks
+ * together with the heading they belong to.
+ */
+public class ContentExtractor {
+
+    /**
+     * One content block: a heading (level 1-4) or a text block (level 0) under its nearest section heading
+     */
+    public static final class Block {
+        public final int level;
+        public final String section;
+        public final String text;
+
+        Block(int level, String section, String text) {
+            this.level = level;
+            this.section = section;
+            this.text = text;
+        }
+
+        public boolean isHeading() {
+            return level > 0;
+        }
+    }
+
+    private static final String EXTRACT_SCRIPT =
+        "var maxBlocks = arguments[0];" +
+        "var BOILERPLATE = 'header, footer, nav, aside, [role=banner], [role=contentinfo], [role=navigation], [aria-hidden=true],' +" +
+        "    '[class*=cookie], [id*=cookie], [class*=consent], [class*=footer], [class*=global-nav], [class*=breadcrumb], [class*=skip-link]';" +
+        "function visible(el) {" +
+        "  if (!el.getClientRects().length) return false;" +
+        "  var style = window.getComputedStyle(el);" +
+        "  return style.visibility !== 'hidden' && style.display !== 'none';" +
+        "}" +
+        "function linkDensity(el) {" +
+        "  var total = el.innerText.length || 1, links = 0;" +
+        "  el.querySelectorAll('a').forEach(function (a) { links += a.innerText.length; });" +
+        "  return links / total;" +
+        "}" +
+        // Prefer the semantic main region, otherwise the container with the most paragraph text
+        "var root = document.querySelector('main, [role=main], article');" +
+        "if (!root) {" +
+        "  var best = document.body, bestScore = 0;" +
+        "  document.querySelectorAll('div, section').forEach(function (el) {" +
+        "    if (el.closest(BOILERPLATE)) return;" +
+        "    var score = 0;" +
+        "    el.querySelectorAll(':scope > p, :scope > ul > li, :scope > ol > li').forEach(function (p) { score += p.innerText.length; });" +
+        "    score *= (1 - linkDensity(el));" +
+        "    if (score > bestScore) { bestScore = score; best = el; }" +
+        "  });" +
+        "  root = best;" +
+        "}" +
+        "var blocks = [], seen = {}, section = '';" +
+        "var nodes = root.querySelectorAll('h1, h2, h3, h4, p, li');" +
+        "for (var i = 0; i < nodes.length && blocks.length < maxBlocks; i++) {" +
+        "  var el = nodes[i];" +
+        "  if (el.closest(BOILERPLATE) || !visible(el)) continue;" +
+        "  if (el.tagName === 'LI' && el.querySelector('p, li')) continue;" +
+        "  if (el.tagName === 'P' && el.parentElement.closest('li')) continue;" +
+        "  var text = el.innerText.replace(/\\s+/g, ' ').trim();" +
+        "  if (!text || seen[text]) continue;" +
+        "  seen[text] = true;" +
+        "  var level = /^H[1-4]$/.test(el.tagName) ? parseInt(el.tagName.charAt(1), 10) : 0;" +
+        "  if (level > 0) { section = text; }" +
+        "  else if (linkDensity(el) > 0.5) continue;" +
+        "  blocks.push({level: level, section: section, text: text});" +
+        "}" +
+        "return blocks;";
+
+    private ContentExtractor() {
+    }
+
+    /**
+     * Extract up to maxBlocks main-content blocks from the current page in one script call
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Block> extract(WebDriver driver, int maxBlocks) {
+        CdpTransport transport = CdpTransport.forDriver(driver);
+        Object result = null;
+        if (transport != null) {
+            try {
+                result = transport.callFunction(EXTRACT_SCRIPT, maxBlocks);
+            } catch (Exception e) {
+                ScraperLog.warn("DevTools extraction failed, using classic WebDriver", "error", e.getMessage());
+            }
+        }
+        if (result == null) {
+            result = ((JavascriptExecutor) driver).executeScript(EXTRACT_SCRIPT, maxBlocks);
+        }
+        List<Block> blocks = new ArrayList<>();
+        if (result instanceof List) {
+            for (Object item : (List<Object>) result) {
+                Map<String, Object> block = (Map<String, Object>) item;
+                blocks.add(new Block(((Number) block.get("level")).intValue(),
+                        String.valueOf(block.get("section")), String.valueOf(block.get("text"))));
+            }
+        }
+        return blocks;
+    }
+}
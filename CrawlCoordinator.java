@@ -0,0 +1,264 @@
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator / worker mode: the crawl is split into independent tasks (result searches and content pages)
+ * that workers on any number of hosts claim from a shared LeaseQueue directory, run and report back.
+ *
+ *   java CrawlCoordinator plan      queue one task per page / search  (-Dcrawl.queries=honda,toyota)
+ *   java CrawlCoordinator worker    claim and run tasks until the queue is drained (-Dcrawl.follow=true keeps polling)
+ *   java CrawlCoordinator status    task counts per state
+ *   java CrawlCoordinator collect   merge all results into distributed_crawl_results.csv
+ *
+ * The queue lives in -Dcrawl.queue (default crawl_queue); point every host at the same mount.
+ * Leases last -Dcrawl.leaseSeconds (default 120) and are renewed every third of that while a task runs,
+ * so a task held by a worker that died is handed to another worker once its lease runs out.
+ * A worker's browser is probed after every task and relaunched when SessionHealth says it is worn out or dead;
+ * a task whose browser died under it goes back to the queue.
+ */
+public class CrawlCoordinator {
+
+    private static final String ENTERPRISE_RESULTS = "enterprise-results";
+    private static final String ENTERPRISE_PAGE = "enterprise-page";
+    private static final String SWIFTRIDE_SEARCH = "swiftride-search";
+    private static final String SWIFTRIDE_PAGE = "swiftride-page";
+
+    private final LeaseQueue queue;
+    private final long leaseMillis;
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName();
+    private final Map<String, WebDriver> drivers = new LinkedHashMap<>();
+
+    public CrawlCoordinator(File root, long leaseMillis) {
+        this.leaseMillis = leaseMillis;
+        this.queue = new LeaseQueue(root, leaseMillis, Integer.getInteger("crawl.maxAttempts", 3), workerId);
+    }
+
+    /**
+     * One full crawl of both sites as independent tasks: {id, type, arguments...}
+     */
+    static List<String[]> tasks(String[] queries) {
+        List<String[]> tasks = new ArrayList<>();
+        tasks.add(new String[]{String.format("%03d-enterprise-results", tasks.size()), ENTERPRISE_RESULTS});
+        String[][] enterprisePages = {
+            {HertzScraper.BASE_URL + "/en/car-rental/locations/canada.html", "Canada Locations Page"},
+            {HertzScraper.BASE_URL + "/en/rental-cars/ca/cars.html", "Debit Cards Information Page"},
+            {HertzScraper.BASE_URL + "/en/reserve/receipts.html", "Help & Support Page"}
+        };
+        for (int i = 0; i < enterprisePages.length; i++) {
+            tasks.add(new String[]{String.format("%03d-enterprise-page-%d", tasks.size(), i), ENTERPRISE_PAGE, String.valueOf(i), enterprisePages[i][0], enterprisePages[i][1]});
+        }
+        for (String query : queries) {
+            tasks.add(new String[]{String.format("%03d-swiftride-search-%s", tasks.size(), query.replaceAll("[^A-Za-z0-9]", "_")), SWIFTRIDE_SEARCH, query});
+        }
+        String[][] swiftRidePages = {
+            {SwiftRide.BASE_URL + "/", "SwiftRide Home Page"},
+            {SwiftRide.BASE_URL + "/how-it-works", "How It Works Page"},
+            {SwiftRide.BASE_URL + "/contact-us", "Contact Us Page"}
+        };
+        for (int i = 0; i < swiftRidePages.length; i++) {
+            tasks.add(new String[]{String.format("%03d-swiftride-page-%d", tasks.size(), i), SWIFTRIDE_PAGE, String.valueOf(i), swiftRidePages[i][0], swiftRidePages[i][1]});
+        }
+        return tasks;
+    }
+
+    /**
+     * Partition one full crawl of both sites into tasks
+     */
+    public int plan(String[] queries) throws IOException {
+        List<String[]> tasks = tasks(queries);
+        for (String[] task : tasks) {
+            queue.enqueue(task[0], Arrays.copyOfRange(task, 1, task.length));
+        }
+        System.out.println("Queued " + tasks.size() + " crawl tasks");
+        return tasks.size();
+    }
+
+    /**
+     * Claim and run tasks until the queue is drained (or forever when follow is set)
+     */
+    public void work(boolean follow) throws IOException, InterruptedException {
+        System.out.println("Worker " + workerId + " started");
+        ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+        try {
+            while (true) {
+                queue.reclaimExpired();
+                LeaseQueue.Lease lease = queue.claim();
+                if (lease == null) {
+                    if (!follow && queue.isDrained()) {
+                        break;
+                    }
+                    Thread.sleep(2000);
+                    continue;
+                }
+                ScraperLog.info("running task", "worker", workerId, "task", lease.id);
+                ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(
+                        () -> queue.heartbeat(lease), leaseMillis / 3, leaseMillis / 3, TimeUnit.MILLISECONDS);
+                try {
+                    List<String[]> rows = run(lease.fields);
+                    heartbeat.cancel(false);
+                    if (!checkSession(siteOf(lease.fields))) {
+                        // The browser died under the task and the scrapers logged their way through it: retry elsewhere
+                        ScraperLog.warn("browser session lost during task, requeueing it", "task", lease.id);
+                        queue.fail(lease);
+                    } else if (!queue.complete(lease, rows)) {
+                        ScraperLog.warn("lease expired before completion, task left to its new owner", "task", lease.id);
+                    }
+                } catch (Exception e) {
+                    heartbeat.cancel(false);
+                    ScraperLog.warn("task failed", "task", lease.id, "error", e.getMessage());
+                    checkSession(siteOf(lease.fields));
+                    queue.fail(lease);
+                }
+            }
+        } finally {
+            heartbeats.shutdownNow();
+            for (WebDriver driver : drivers.values()) {
+                CdpTransport.closeAll(driver);
+                driver.quit();
+            }
+            drivers.clear();
+        }
+        System.out.println("Worker " + workerId + " finished: queue drained");
+    }
+
+    // Run one task on this worker's browser for its site
+    List<String[]> run(String[] task) throws Exception {
+        return run(driver(siteOf(task)), task);
+    }
+
+    /**
+     * Site ("enterprise" or "swiftride") whose browser a task (type, arguments...) runs on
+     */
+    static String siteOf(String[] task) {
+        return task[0].startsWith("enterprise") ? "enterprise" : "swiftride";
+    }
+
+    /**
+     * Run one task (type, arguments...) on the given browser and return the rows it extracted
+     */
+    static List<String[]> run(WebDriver driver, String[] task) throws Exception {
+        RowSink rows = new RowSink();
+        switch (task[0]) {
+            case ENTERPRISE_RESULTS: {
+                WebDriverWait wait = new RecordingWait(driver, Duration.ofSeconds(10));
+                CdpTransport.get(driver, HertzScraper.BASE_URL + "/en/car-rental.html");
+                HertzScraper.submitReservationForm(driver, wait);
+                try (ScraperEvents.Stage stage = ScraperEvents.stage("enterprise", "vehicle-options", rows)) {
+                    HertzScraper.extractVehicleOptions(driver, driver.getTitle(), stage.rows());
+                }
+                break;
+            }
+            case ENTERPRISE_PAGE: {
+                CdpTransport.get(driver, task[2]);
+                HertzScraper.crawlPage(driver, new RecordingWait(driver, Duration.ofSeconds(10)), Integer.parseInt(task[1]), task[2], task[3], rows);
+                break;
+            }
+            case SWIFTRIDE_SEARCH: {
+                WebDriverWait wait = new RecordingWait(driver, Duration.ofSeconds(15));
+                CdpTransport.get(driver, SwiftRide.BASE_URL + "/cars");
+                if (!SwiftRide.searchVehicles(wait, task[1])) {
+                    throw new IllegalStateException("search for '" + task[1] + "' failed");
+                }
+                try (ScraperEvents.Stage stage = ScraperEvents.stage("swiftride", "vehicle-cards", rows)) {
+                    SwiftRide.extractVehicleCards(driver, wait, driver.getTitle(), stage.rows());
+                }
+                break;
+            }
+            case SWIFTRIDE_PAGE: {
+                CdpTransport.get(driver, task[2]);
+                SwiftRide.collectPageData(driver, new RecordingWait(driver, Duration.ofSeconds(15)), Integer.parseInt(task[1]), task[2], task[3], rows);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown task type: " + task[0]);
+        }
+        return rows.rows();
+    }
+
+    // One browser per site, launched on the first task for that site (and again after it is recycled)
+    private WebDriver driver(String site) {
+        return drivers.computeIfAbsent(site, s -> {
+            WebDriver driver = s.equals("enterprise") ? HertzScraper.createDriver() : SwiftRide.createDriver();
+            SessionHealth.track(driver);
+            return driver;
+        });
+    }
+
+    // After a task: probe the site's browser and quit it when worn out or dead, so the next task gets a fresh
+    // one; false when the session was dead
+    private boolean checkSession(String site) {
+        WebDriver driver = drivers.get(site);
+        SessionHealth health = driver == null ? null : SessionHealth.of(driver);
+        if (health == null) {
+            return true;
+        }
+        health.jobFinished();
+        boolean alive = health.probe(driver);
+        String reason = health.recycleReason();
+        if (reason != null) {
+            ScraperLog.info("recycling browser session", "site", site, "reason", reason, "health", health.summary());
+            drivers.remove(site);
+            SessionHealth.forget(driver);
+            CdpTransport.closeAll(driver);
+            try {
+                driver.quit();
+            } catch (Exception e) {
+                ScraperLog.warn("error quitting session", "site", site, "error", e.getMessage());
+            }
+        }
+        return alive;
+    }
+
+    public void printStatus() {
+        System.out.println("pending=" + queue.count("pending") + " leased=" + queue.count("leased")
+                + " done=" + queue.count("done") + " failed=" + queue.count("failed"));
+    }
+
+    /**
+     * Concatenate every task's rows into one CSV
+     */
+    public void collect(String fileName) throws IOException {
+        try (FileWriter csvWriter = new FileWriter(fileName)) {
+            csvWriter.append("Page Title,Section,Info,Details\n");
+            for (File result : queue.resultFiles()) {
+                csvWriter.append(new String(Files.readAllBytes(result.toPath()), StandardCharsets.UTF_8));
+            }
+        }
+        System.out.println("Merged " + queue.resultFiles().size() + " task results into " + fileName);
+    }
+
+    public static void main(String[] args) throws Exception {
+        CrawlCoordinator coordinator = new CrawlCoordinator(new File(System.getProperty("crawl.queue", "crawl_queue")),
+                Long.getLong("crawl.leaseSeconds", 120L) * 1000L);
+        String command = args.length > 0 ? args[0] : "status";
+        switch (command) {
+            case "plan":
+                coordinator.plan(System.getProperty("crawl.queries", "honda").split(","));
+                break;
+            case "worker":
+                coordinator.work(Boolean.getBoolean("crawl.follow"));
+                break;
+            case "collect":
+                coordinator.collect("distributed_crawl_results.csv");
+                break;
+            default:
+                coordinator.printStatus();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-running crawl daemon. Keeps one warm JVM and a pool of pre-launched browser sessions per site
+ * and runs crawl jobs on them, instead of a cold "java HertzScraper" / "java SwiftRide" every few minutes.
+ *
+ * Jobs ("hertz", "swiftride") come from three sources:
+ *   -Ddaemon.schedule=hertz@300,swiftride@600   repeat a job every N seconds
+ *   -Ddaemon.jobDir=crawl_jobs                  drop a file with one job name per line; it is renamed to .done
+ *   -Ddaemon.port=7070                          local socket, one command per line: a job name, "status", "sessions", "revisit" or "shutdown"
+ *   -Ddaemon.revisit=true                       revisit every page and search at its own learned pace (see RevisitScheduler)
+ * Sessions per site are set with -Ddaemon.browsers=1; each site has as many worker threads as sessions. Latest prices are served on localhost:8085 (see PriceApiServer).
+ *
+ * Session health is checked every -Ddaemon.healthSeconds (default 60) and after each job; worn-out, hung or
+ * crashed sessions are replaced (thresholds in SessionHealth). A job whose session died under it is run again
+ * on a fresh session, up to -Ddaemon.jobRetries times (default 2). A scheduled run is skipped while a job of
+ * the same name is still queued or running, so a slow crawl does not pile up behind its own schedule.
+ */
+public class CrawlDaemon {
+
+    /**
+     * A crawl that runs on a borrowed browser session
+     */
+    interface CrawlJob {
+        void run(WebDriver driver) throws Exception;
+    }
+
+    private static final Map<String, CrawlJob> JOBS = new LinkedHashMap<>();
+
+    static {
+        JOBS.put("hertz", HertzScraper::runCrawl);
+        JOBS.put("swiftride", SwiftRide::runCrawl);
+    }
+
+    private final Map<String, BrowserPool> pools = new LinkedHashMap<>();
+    // Site -> worker threads, one per session of its pool, so a backlog on one site cannot hold the other's sessions idle
+    private final Map<String, ExecutorService> workers = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger rescheduled = new AtomicInteger();
+    // Job name -> runs queued or running (retries included), for skipping overlapping scheduled runs
+    private final Map<String, Integer> active = new ConcurrentHashMap<>();
+    private final int jobRetries = Integer.getInteger("daemon.jobRetries", 2);
+    private volatile RevisitScheduler revisits;
+
+    public CrawlDaemon(int browsersPerSite) {
+        pools.put("hertz", new BrowserPool("hertz", browsersPerSite, HertzScraper::createDriver));
+        pools.put("swiftride", new BrowserPool("swiftride", browsersPerSite, SwiftRide::createDriver));
+        for (String site : pools.keySet()) {
+            workers.put(site, Executors.newFixedThreadPool(browsersPerSite));
+        }
+        long healthSeconds = Long.getLong("daemon.healthSeconds", 60L);
+        scheduler.scheduleWithFixedDelay(() -> {
+            for (BrowserPool pool : pools.values()) {
+                pool.monitor();
+            }
+        }, healthSeconds, healthSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queue a job by name; returns false for unknown job names
+     */
+    public boolean submit(String jobName) {
+        CrawlJob job = JOBS.get(jobName);
+        BrowserPool pool = pools.get(jobName);
+        if (job == null || pool == null) {
+            ScraperLog.warn("unknown crawl job", "job", jobName);
+            return false;
+        }
+        active.merge(jobName, 1, Integer::sum);
+        workers.get(pool.name()).submit(() -> runJob(jobName, job, pool, 0, jobRetries));
+        return true;
+    }
+
+    /**
+     * Queue an ad-hoc job on a site's sessions ("hertz" / "enterprise" or "swiftride"); false for unknown sites
+     */
+    public boolean submit(String label, String site, CrawlJob job) {
+        return submit(label, site, job, jobRetries);
+    }
+
+    /**
+     * Queue an ad-hoc job with its own limit of reruns after a lost session; 0 for callers that retry themselves
+     */
+    public boolean submit(String label, String site, CrawlJob job, int retries) {
+        BrowserPool pool = pools.get(site.equals("enterprise") ? "hertz" : site);
+        if (pool == null) {
+            return false;
+        }
+        active.merge(label, 1, Integer::sum);
+        workers.get(pool.name()).submit(() -> runJob(label, job, pool, 0, retries));
+        return true;
+    }
+
+    /**
+     * Whether a job of this name is queued or running
+     */
+    public boolean isActive(String jobName) {
+        return active.containsKey(jobName);
+    }
+
+    private void finished(String jobName) {
+        active.computeIfPresent(jobName, (name, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void runJob(String jobName, CrawlJob job, BrowserPool pool, int attempt, int retries) {
+        WebDriver driver;
+        try {
+            driver = pool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finished(jobName);
+            return;
+        }
+        running.incrementAndGet();
+        long start = System.currentTimeMillis();
+        boolean sessionLost = false;
+        try {
+            ScraperLog.info("crawl job started", "job", jobName, "attempt", attempt + 1);
+            job.run(driver);
+            // The scrapers catch most errors themselves: a session killed as hung mid-job still ends up here
+            SessionHealth health = SessionHealth.of(driver);
+            sessionLost = health != null && health.isBroken();
+            if (!sessionLost) {
+                completed.incrementAndGet();
+                ScraperLog.info("crawl job finished", "job", jobName, "durationMs", System.currentTimeMillis() - start);
+            }
+        } catch (WebDriverException e) {
+            // A timeout or missing element leaves the session usable; a crashed tab or dead chromedriver does not
+            sessionLost = !pool.isResponsive(driver);
+            if (!sessionLost) {
+                failed.incrementAndGet();
+                ScraperLog.warn("crawl job failed", "job", jobName, "error", e.getMessage());
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            ScraperLog.warn("crawl job failed", "job", jobName, "error", e.getMessage());
+        } finally {
+            running.decrementAndGet();
+            if (sessionLost) {
+                pool.discard(driver);
+            } else {
+                pool.release(driver);
+            }
+        }
+        if (sessionLost) {
+            if (attempt < retries && stopped.getCount() > 0) {
+                rescheduled.incrementAndGet();
+                ScraperLog.warn("crawl job lost its browser session, rescheduling on a fresh one", "job", jobName, "attempt", attempt + 1);
+                workers.get(pool.name()).submit(() -> runJob(jobName, job, pool, attempt + 1, retries));
+                return; // still active until the retry ends
+            }
+            failed.incrementAndGet();
+            ScraperLog.error("crawl job lost its browser session, giving up", "job", jobName, "attempts", attempt + 1);
+        }
+        finished(jobName);
+    }
+
+    /**
+     * Repeat jobs from a spec like "hertz@300,swiftride@600" (seconds between runs)
+     */
+    public void schedule(String spec) {
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("@");
+            if (parts.length != 2) {
+                continue;
+            }
+            String jobName = parts[0].trim();
+            long seconds = Long.parseLong(parts[1].trim());
+            scheduler.scheduleWithFixedDelay(() -> {
+                if (isActive(jobName)) {
+                    ScraperLog.info("scheduled run skipped, previous run still active", "job", jobName);
+                } else {
+                    submit(jobName);
+                }
+            }, 0, seconds, TimeUnit.SECONDS);
+            System.out.println("Scheduled '" + jobName + "' every " + seconds + " s");
+        }
+    }
+
+    /**
+     * Revisit each crawl target when it is likely to have changed, within the hourly budget
+     */
+    public void startRevisits(RevisitScheduler scheduler) {
+        revisits = scheduler;
+        scheduler.tick();
+        this.scheduler.scheduleWithFixedDelay(scheduler::tick, 5, 5, TimeUnit.SECONDS);
+        System.out.println("Revisit scheduler started");
+    }
+
+    /**
+     * Poll a directory for job files: each line is a job name; each file is renamed to .done before its jobs are queued
+     */
+    public void watchJobDirectory(File directory) {
+        directory.mkdirs();
+        scheduler.scheduleWithFixedDelay(() -> {
+            File[] files = directory.listFiles((dir, name) -> name.endsWith(".job"));
+            if (files == null) {
+                return;
+            }
+            for (File file : files) {
+                // Claim the file first: one that cannot be moved would otherwise be submitted again on every poll
+                Path done = new File(directory, file.getName() + ".done").toPath();
+                try {
+                    Files.move(file.toPath(), done, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    ScraperLog.warn("could not claim job file, will retry", "file", file, "error", e.getMessage());
+                    continue;
+                }
+                try {
+                    List<String> lines = Files.readAllLines(done, StandardCharsets.UTF_8);
+                    for (String line : lines) {
+                        if (!line.trim().isEmpty()) {
+                            submit(line.trim());
+                        }
+                    }
+                } catch (IOException e) {
+                    ScraperLog.warn("could not read job file", "file", done, "error", e.getMessage());
+                }
+            }
+        }, 0, 2, TimeUnit.SECONDS);
+        System.out.println("Watching " + directory.getAbsolutePath() + " for *.job files");
+    }
+
+    /**
+     * Accept line commands on a loopback socket (job name, "status", "sessions", "revisit" or "shutdown")
+     */
+    public void listen(int port) {
+        Thread listener = new Thread(() -> {
+            try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+                System.out.println("Crawl daemon listening on localhost:" + port);
+                while (stopped.getCount() > 0) {
+                    try (Socket client = server.accept();
+                         BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                         PrintWriter out = new PrintWriter(client.getOutputStream(), true)) {
+                        String command;
+                        while ((command = in.readLine()) != null) {
+                            out.println(handleCommand(command.trim()));
+                            if (command.trim().equals("shutdown")) {
+                                return;
+                            }
+                        }
+                    } catch (IOException e) {
+                        ScraperLog.warn("daemon client connection error", "error", e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                ScraperLog.warn("could not open daemon socket", "port", port, "error", e.getMessage());
+            }
+        }, "crawl-daemon-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    String handleCommand(String command) {
+        if (command.equals("status")) {
+            return status();
+        }
+        if (command.equals("sessions")) {
+            StringBuilder report = new StringBuilder();
+            for (BrowserPool pool : pools.values()) {
+                report.append(pool.report());
+            }
+            return report.toString().trim();
+        }
+        if (command.equals("revisit")) {
+            return revisits == null ? "revisit scheduler not running" : revisits.report().trim();
+        }
+        if (command.equals("shutdown")) {
+            stopped.countDown();
+            return "shutting down";
+        }
+        return submit(command) ? "queued " + command : "unknown job " + command;
+    }
+
+    public String status() {
+        StringBuilder status = new StringBuilder("running=" + running.get() + " completed=" + completed.get() + " failed=" + failed.get()
+                + " rescheduled=" + rescheduled.get());
+        for (BrowserPool pool : pools.values()) {
+            status.append(" ").append(pool.name()).append("=").append(pool.idleCount()).append("/").append(pool.size()).append(" idle, ")
+                    .append(pool.recycledCount()).append(" recycled");
+        }
+        return status.toString();
+    }
+
+    public void awaitShutdown() throws InterruptedException {
+        stopped.await();
+    }
+
+    public void shutdown() {
+        stopped.countDown();
+        scheduler.shutdownNow();
+        for (ExecutorService siteWorkers : workers.values()) {
+            siteWorkers.shutdownNow();
+        }
+        try {
+            for (ExecutorService siteWorkers : workers.values()) {
+                siteWorkers.awaitTermination(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (BrowserPool pool : pools.values()) {
+            pool.shutdown();
+        }
+        System.out.println("Crawl daemon stopped: " + status());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        CrawlDaemon daemon = new CrawlDaemon(Integer.getInteger("daemon.browsers", 1));
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::shutdown));
+
+        String schedule = System.getProperty("daemon.schedule", "");
+        if (!schedule.isEmpty()) {
+            daemon.schedule(schedule);
+        }
+        if (Boolean.getBoolean("daemon.revisit")) {
+            int browsers = Integer.getInteger("daemon.browsers", 1);
+            daemon.startRevisits(new RevisitScheduler(daemon, CrawlCoordinator.tasks(System.getProperty("crawl.queries", "honda").split(",")),
+                    new File(System.getProperty("revisit.state", "revisit_state.tsv")), browsers * 2));
+        }
+        daemon.watchJobDirectory(new File(System.getProperty("daemon.jobDir", "crawl_jobs")));
+        daemon.listen(Integer.getInteger("daemon.port", 7070));
+        PriceApiServer.startIfEnabled(8085);
+
+        daemon.awaitShutdown();
+        System.exit(0);
+    }
+}
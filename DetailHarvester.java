@@ -0,0 +1,207 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the modal / detail content (features, specs) of every vehicle card on a results page in one
+ * in-page script run, instead of scrolling, highlighting, clicking and sleeping through cards one at a time.
+ *
+ * For each card the script first reads modal markup that is already in the DOM (hidden dialogs are read
+ * through textContent, no click needed). Only when there is none does it click the card's trigger, poll
+ * every 50 ms for a newly visible dialog, read it and close it again. The ways of closing a dialog (its close
+ * button, Escape, a click outside it) are tried in the order StrategyRegistry ranks them for the page, and
+ * the one that worked is reported back, so the usual way is tried first with the next card.
+ *
+ * Long result pages are read in chunks: each script run stops after -Dharvest.chunkMillis (default 10000)
+ * and the next run resumes at the following card, so no single call runs into the DevTools or script timeout.
+ * The whole harvest stops after -Dharvest.budgetMillis (default 120000) and returns the cards read so far.
+ */
+public class DetailHarvester {
+
+    /**
+     * Detail content of one card; source is "dom" (read without opening), "modal" (opened) or "" (none found)
+     */
+    public static final class Detail {
+        public final int index;
+        public final String name;
+        public final String detail;
+        public final String source;
+
+        Detail(int index, String name, String detail, String source) {
+            this.index = index;
+            this.name = name;
+            this.detail = detail;
+            this.source = source;
+        }
+    }
+
+    // Enterprise results page: cards, the clickable vehicle image and its dialog
+    public static final String ENTERPRISE_CARDS = "//li[contains(@class, 'vehicle-list__item')]";
+    public static final String ENTERPRISE_NAME = ".//h2[@class='mb-0']";
+    public static final String ENTERPRISE_TRIGGER = ".//button[contains(@class, 'car-item__vehicle-image--clickable')] | .//img";
+    public static final String DIALOGS = "//div[contains(@class, 'modal') or contains(@class, 'dialog') or contains(@class, 'overlay') or contains(@class, 'popup') or contains(@role, 'dialog')]";
+    public static final String CLOSE_BUTTON = ".//button[contains(@class, 'close') or contains(@aria-label, 'close')] | .//*[contains(text(), '×')] | .//*[contains(text(), 'Close')]";
+
+    // Ways to close an opened dialog, tried in ranked order by the script
+    static final List<String> CLOSE_STRATEGIES = List.of("close-button", "escape", "outside-click");
+
+    private static final long CHUNK_MILLIS = Long.getLong("harvest.chunkMillis", 10_000L);
+    private static final long BUDGET_MILLIS = Long.getLong("harvest.budgetMillis", 120_000L);
+
+    // arguments: cards, name, trigger, dialogs (document-relative), close button (dialog-relative), max wait ms,
+    // close strategies in the order to try them, first card index, chunk time budget ms;
+    // returns [card count, rows] where rows cover the cards from the first index until the budget ran out
+    private static final String HARVEST_SCRIPT =
+        "var cardsXPath = arguments[0], nameXPath = arguments[1], triggerXPath = arguments[2];" +
+        "var dialogXPath = arguments[3], closeXPath = arguments[4], maxWait = arguments[5], closeOrder = arguments[6];" +
+        "var firstCard = arguments[7], chunkMillis = arguments[8];" +
+        "function all(xpath, context) {" +
+        "  var nodes = document.evaluate(xpath, context, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), list = [];" +
+        "  for (var i = 0; i < nodes.snapshotLength; i++) { list.push(nodes.snapshotItem(i)); }" +
+        "  return list;" +
+        "}" +
+        "function first(xpath, context) {" +
+        "  return document.evaluate(xpath, context, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+        "}" +
+        "function clean(text) { return (text || '').replace(/\\s+/g, ' ').trim(); }" +
+        "function visible(el) { return el.getClientRects().length > 0 && getComputedStyle(el).visibility !== 'hidden'; }" +
+        "function pause(ms) { return new Promise(function (resolve) { setTimeout(resolve, ms); }); }" +
+        "function closeWith(how, modal) {" +
+        "  if (how === 'close-button') { var close = first(closeXPath, modal); if (!close) { return false; } close.click(); }" +
+        "  else if (how === 'escape') { document.dispatchEvent(new KeyboardEvent('keydown', {key: 'Escape', keyCode: 27, bubbles: true})); }" +
+        "  else { document.body.click(); }" +
+        "  return true;" +
+        "}" +
+        // Every strategy but the last gets a short window to take effect before the next one is tried
+        "async function closeModal(modal) {" +
+        "  for (var s = 0; s < closeOrder.length; s++) {" +
+        "    if (!closeWith(closeOrder[s], modal)) { continue; }" +
+        "    var grace = s === closeOrder.length - 1 ? maxWait : Math.min(300, maxWait);" +
+        "    for (var closing = 0; visible(modal) && closing < grace; closing += 50) { await pause(50); }" +
+        "    if (!visible(modal)) { return s; }" +
+        "  }" +
+        "  return -1;" +
+        "}" +
+        "async function harvest() {" +
+        "  var cards = all(cardsXPath, document), result = [], started = Date.now();" +
+        "  for (var i = firstCard; i < cards.length && (i === firstCard || Date.now() - started < chunkMillis); i++) {" +
+        "    var card = cards[i], nameNode = first(nameXPath, card);" +
+        "    var row = [i, nameNode ? clean(nameNode.textContent) : '', '', '', -2];" +
+        "    var trigger = first(triggerXPath, card);" +
+        "    var inline = all(dialogXPath.replace(/^\\/\\//, './/'), card).filter(function (d) { return !trigger || !d.contains(trigger); });" +
+        "    if (inline.length > 0 && clean(inline[0].textContent)) {" +
+        "      row[2] = clean(inline[0].textContent); row[3] = 'dom';" +
+        "    } else if (trigger) {" +
+        "      var before = all(dialogXPath, document).filter(visible);" +
+        "      trigger.click();" +
+        "      var modal = null;" +
+        "      for (var waited = 0; !modal && waited <= maxWait; waited += 50) {" +
+        "        modal = all(dialogXPath, document).filter(function (d) { return visible(d) && before.indexOf(d) < 0 && clean(d.innerText); })[0] || null;" +
+        "        if (!modal) { await pause(50); }" +
+        "      }" +
+        "      if (modal) {" +
+        "        row[2] = clean(modal.innerText); row[3] = 'modal';" +
+        "        row[4] = await closeModal(modal);" +
+        "      }" +
+        "    }" +
+        "    result.push(row);" +
+        "  }" +
+        "  return [cards.length, result];" +
+        "}";
+
+    /**
+     * Harvest the detail content of every card matched by cardsXPath on the current page;
+     * site and page name the close-strategy ranking to use and update. Returns the cards read so far
+     * when the harvest budget runs out or a later chunk fails.
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Detail> harvest(WebDriver driver, String site, String page, String cardsXPath, String nameXPath,
+                                       String triggerXPath, String dialogsXPath, String closeXPath, long maxWaitMillis) {
+        // One ranking per harvest: a script run cannot consult the registry between cards
+        List<String> closeOrder = StrategyRegistry.SHARED.rank(site, page, "modal-close", CLOSE_STRATEGIES);
+        List<Detail> details = new ArrayList<>();
+        CdpTransport transport = CdpTransport.forDriver(driver);
+        Duration previousTimeout = transport == null ? driver.manage().timeouts().getScriptTimeout() : null;
+        long deadline = System.currentTimeMillis() + BUDGET_MILLIS;
+        int next = 0;
+        try {
+            if (transport == null) {
+                // One chunk plus the slowest card: every way of closing gets its full wait
+                driver.manage().timeouts().scriptTimeout(Duration.ofMillis(CHUNK_MILLIS + maxWaitMillis * (CLOSE_STRATEGIES.size() + 2)));
+            }
+            int total = Integer.MAX_VALUE;
+            while (next < total) {
+                if (System.currentTimeMillis() >= deadline) {
+                    ScraperLog.warn("detail harvest budget exhausted, returning partial rows", "site", site, "page", page,
+                            "cards", next, "of", total);
+                    break;
+                }
+                Object[] args = {cardsXPath, nameXPath, triggerXPath, dialogsXPath, closeXPath, maxWaitMillis, closeOrder, next, CHUNK_MILLIS};
+                List<Object> chunk;
+                try {
+                    chunk = runChunk(driver, transport, args);
+                } catch (RuntimeException e) {
+                    if (details.isEmpty()) {
+                        throw e;
+                    }
+                    ScraperLog.warn("detail harvest chunk failed, returning partial rows", "site", site, "page", page,
+                            "cards", next, "error", e.getMessage());
+                    break;
+                }
+                total = ((Number) chunk.get(0)).intValue();
+                List<Object> rows = (List<Object>) chunk.get(1);
+                boolean scriptFailed = false;
+                for (Object item : rows) {
+                    List<Object> row = (List<Object>) item;
+                    int index = ((Number) row.get(0)).intValue();
+                    if (index < 0) {
+                        if (details.isEmpty()) {
+                            throw new IllegalStateException("Detail harvest script failed: " + row.get(2));
+                        }
+                        // Keep what earlier chunks harvested, as for a chunk that failed outright
+                        ScraperLog.warn("detail harvest script failed, returning partial rows", "site", site, "page", page,
+                                "cards", next, "error", row.get(2));
+                        scriptFailed = true;
+                        break;
+                    }
+                    details.add(new Detail(index, (String) row.get(1), (String) row.get(2), (String) row.get(3)));
+                    int closedWith = ((Number) row.get(4)).intValue();
+                    if (closedWith >= 0) {
+                        StrategyRegistry.SHARED.record(site, page, "modal-close", closeOrder.subList(0, closedWith + 1), closeOrder.get(closedWith));
+                    } else if (closedWith == -1) {
+                        StrategyRegistry.SHARED.record(site, page, "modal-close", closeOrder, null);
+                    }
+                    next = index + 1;
+                }
+                if (scriptFailed || rows.isEmpty()) {
+                    break; // script error, or the page lost cards between chunks
+                }
+            }
+        } finally {
+            if (previousTimeout != null) {
+                driver.manage().timeouts().scriptTimeout(previousTimeout);
+            }
+        }
+        return details;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> runChunk(WebDriver driver, CdpTransport transport, Object[] args) {
+        if (transport != null) {
+            // Runtime.evaluate awaits the returned promise
+            return (List<Object>) transport.callFunction(HARVEST_SCRIPT + "return harvest();", args);
+        }
+        return (List<Object>) ((JavascriptExecutor) driver).executeAsyncScript(HARVEST_SCRIPT +
+                "var done = arguments[arguments.length - 1];" +
+                "harvest().then(done, function (e) { done([1, [[-1, '', String(e), 'error']]]); });", args);
+    }
+
+    /**
+     * Harvest every vehicle card on an Enterprise results page
+     */
+    public static List<Detail> harvestEnterprise(WebDriver driver) {
+        return harvest(driver, "enterprise", "results", ENTERPRISE_CARDS, ENTERPRISE_NAME, ENTERPRISE_TRIGGER, DIALOGS, CLOSE_BUTTON, 3000);
+    }
+}
@@ -0,0 +1,393 @@
+import org.openqa.selenium.WebDriver;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed archive of the rendered DOM of every page the scrapers visit, so new extractors
+ * can be re-run over history without re-crawling.
+ *
+ * Layout under -Dscraper.archive.dir (default dom_archive):
+ *   segment-NNNNN.dat  append-only blobs, each [magic][raw length][stored length][SHA-256][deflated DOM],
+ *                      written through a memory-mapped region; a new segment starts after 64 MB
+ *   index.tsv          one line per capture: time, SHA-256, segment, offset, stored length, raw length, URL
+ * A DOM whose SHA-256 is already archived only adds an index line, so unchanged pages cost almost no disk.
+ * Disabled with -Dscraper.archive=false.
+ *
+ * One process at a time writes: the writer holds an exclusive lock on archive.lock, and a second scraper
+ * process finds the archive unavailable instead of interleaving records. Readers (list / show) take no lock
+ * and never modify the segments.
+ *
+ * Browse the archive with: java DomArchive list | java DomArchive show URL [n-th newest, default 0]
+ */
+public class DomArchive {
+
+    private static final int MAGIC = 0x444F4D31; // "DOM1"
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 32;
+    private static final long SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private static DomArchive shared;
+
+    /**
+     * One capture of a URL: where its (possibly shared) blob lives
+     */
+    public static final class Snapshot {
+        public final Instant capturedAt;
+        public final String url;
+        public final String sha256;
+        public final int segment;
+        public final long offset;
+        public final int storedLength;
+        public final int rawLength; // UTF-8 bytes of the DOM, not characters
+        public final boolean deduplicated;
+
+        Snapshot(Instant capturedAt, String url, String sha256, int segment, long offset, int storedLength, int rawLength, boolean deduplicated) {
+            this.capturedAt = capturedAt;
+            this.url = url;
+            this.sha256 = sha256;
+            this.segment = segment;
+            this.offset = offset;
+            this.storedLength = storedLength;
+            this.rawLength = rawLength;
+            this.deduplicated = deduplicated;
+        }
+    }
+
+    private final File directory;
+    private final boolean readOnly;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private final Map<String, Snapshot> blobsByHash = new HashMap<>();
+    private final Map<String, List<Snapshot>> snapshotsByUrl = new LinkedHashMap<>();
+    private FileChannel segmentChannel;
+    private int segmentNumber;
+    private long segmentPosition;
+
+    public DomArchive(File directory) throws IOException {
+        this(directory, false);
+    }
+
+    /**
+     * Open the archive for writing (taking the cross-process writer lock) or read-only
+     */
+    public DomArchive(File directory, boolean readOnly) throws IOException {
+        this.directory = directory;
+        this.readOnly = readOnly;
+        if (!readOnly) {
+            directory.mkdirs();
+            lockWriter();
+        }
+        try {
+            loadIndex();
+            if (!readOnly) {
+                openLastSegment();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Archive shared by the scrapers, opened on first use; null when archiving is disabled or the directory is unusable
+     */
+    public static synchronized DomArchive shared() {
+        if (!Boolean.parseBoolean(System.getProperty("scraper.archive", "true"))) {
+            return null;
+        }
+        if (shared == null) {
+            try {
+                shared = new DomArchive(new File(System.getProperty("scraper.archive.dir", "dom_archive")));
+            } catch (IOException e) {
+                ScraperLog.warn("DOM archive unavailable, archiving disabled", "error", e.getMessage());
+                System.setProperty("scraper.archive", "false");
+                return null;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Store the current page's rendered DOM in the shared archive; returns null when archiving is off or fails
+     */
+    public static Snapshot capture(WebDriver driver) {
+        DomArchive archive = shared();
+        if (archive == null) {
+            return null;
+        }
+        try {
+            String dom = null;
+            CdpTransport transport = CdpTransport.forDriver(driver);
+            if (transport != null) {
+                try {
+                    dom = (String) transport.callFunction("return document.documentElement.outerHTML;");
+                } catch (Exception e) {
+                    ScraperLog.warn("DevTools DOM capture failed, using classic WebDriver", "error", e.getMessage());
+                }
+            }
+            if (dom == null) {
+                dom = driver.getPageSource();
+            }
+            return archive.store(driver.getCurrentUrl(), dom);
+        } catch (Exception e) {
+            ScraperLog.warn("could not archive page DOM", "error", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Add a capture of a URL; the DOM is written only if no blob with the same hash exists yet
+     */
+    public synchronized Snapshot store(String url, String dom) throws IOException {
+        if (readOnly) {
+            throw new IllegalStateException("DOM archive opened read-only");
+        }
+        byte[] raw = dom.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(raw);
+        Instant now = Instant.now();
+        Snapshot existing = blobsByHash.get(hash);
+        Snapshot snapshot;
+        if (existing != null) {
+            snapshot = new Snapshot(now, url, hash, existing.segment, existing.offset, existing.storedLength, existing.rawLength, true);
+        } else {
+            byte[] compressed = deflate(raw);
+            int recordBytes = HEADER_BYTES + compressed.length;
+            if (segmentPosition > 0 && segmentPosition + recordBytes > SEGMENT_BYTES) {
+                segmentChannel.close();
+                openSegment(segmentNumber + 1);
+            }
+            long offset = segmentPosition;
+            // Map exactly the record's region past the current end; the file grows by that much
+            MappedByteBuffer region = segmentChannel.map(FileChannel.MapMode.READ_WRITE, offset, recordBytes);
+            region.putInt(MAGIC).putInt(raw.length).putInt(compressed.length).put(hexToBytes(hash)).put(compressed);
+            region.force();
+            segmentPosition += recordBytes;
+            snapshot = new Snapshot(now, url, hash, segmentNumber, offset, compressed.length, raw.length, false);
+            blobsByHash.put(hash, snapshot);
+        }
+        snapshotsByUrl.computeIfAbsent(url, u -> new ArrayList<>()).add(snapshot);
+        try (PrintWriter index = new PrintWriter(new FileWriter(new File(directory, "index.tsv"), true))) {
+            index.println(now + "\t" + hash + "\t" + snapshot.segment + "\t" + snapshot.offset + "\t"
+                    + snapshot.storedLength + "\t" + snapshot.rawLength + "\t" + url.replace('\t', ' '));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Captures of a URL, oldest first
+     */
+    public synchronized List<Snapshot> history(String url) {
+        return new ArrayList<>(snapshotsByUrl.getOrDefault(url, new ArrayList<>()));
+    }
+
+    public synchronized List<String> urls() {
+        return new ArrayList<>(snapshotsByUrl.keySet());
+    }
+
+    /**
+     * Read back and decompress the DOM of a capture
+     */
+    public String read(Snapshot snapshot) throws IOException {
+        File file = segmentFile(snapshot.segment);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, snapshot.offset, HEADER_BYTES + snapshot.storedLength);
+            if (region.getInt() != MAGIC) {
+                throw new IOException("Corrupt archive record at " + file + ":" + snapshot.offset);
+            }
+            int rawLength = region.getInt();
+            int storedLength = region.getInt();
+            region.position(HEADER_BYTES);
+            byte[] compressed = new byte[storedLength];
+            region.get(compressed);
+            return new String(inflate(compressed, rawLength), StandardCharsets.UTF_8);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        if (segmentChannel != null) {
+            segmentChannel.close();
+            segmentChannel = null;
+        }
+        if (lockChannel != null) {
+            lockChannel.close(); // releases the writer lock
+            lockChannel = null;
+            lock = null;
+        }
+    }
+
+    private void lockWriter() throws IOException {
+        lockChannel = FileChannel.open(new File(directory, "archive.lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // another DomArchive in this JVM writes here
+        }
+        if (lock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new IOException(directory + " is being written by another process");
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        File index = new File(directory, "index.tsv");
+        if (!index.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(index, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", 7);
+                if (parts.length < 7) {
+                    continue;
+                }
+                Snapshot snapshot;
+                try {
+                    snapshot = new Snapshot(Instant.parse(parts[0]), parts[6], parts[1], Integer.parseInt(parts[2]),
+                            Long.parseLong(parts[3]), Integer.parseInt(parts[4]), Integer.parseInt(parts[5]),
+                            blobsByHash.containsKey(parts[1]));
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    continue; // a line the writer is still appending
+                }
+                blobsByHash.putIfAbsent(snapshot.sha256, snapshot);
+                snapshotsByUrl.computeIfAbsent(snapshot.url, u -> new ArrayList<>()).add(snapshot);
+            }
+        }
+    }
+
+    private void openLastSegment() throws IOException {
+        int last = 0;
+        while (segmentFile(last + 1).exists()) {
+            last++;
+        }
+        openSegment(last);
+    }
+
+    // Resume after the last complete record; anything after it (a crash mid-write) is overwritten
+    private void openSegment(int number) throws IOException {
+        segmentNumber = number;
+        segmentChannel = FileChannel.open(segmentFile(number).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = segmentChannel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(12);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            segmentChannel.read(header, position);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                break;
+            }
+            header.getInt();
+            long next = position + HEADER_BYTES + header.getInt();
+            if (next > size) {
+                break;
+            }
+            position = next;
+        }
+        segmentPosition = position;
+        if (position < size) {
+            segmentChannel.truncate(position);
+        }
+    }
+
+    private File segmentFile(int number) {
+        return new File(directory, String.format("segment-%05d.dat", number));
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] buffer = new byte[16 * 1024];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        byte[] raw = new byte[rawLength];
+        try {
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                read += inflater.inflate(raw, read, rawLength - read);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed DOM: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return raw;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] hexToBytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Read-only: browsing must neither wait for a running scraper nor truncate the segment it is writing
+        DomArchive archive = new DomArchive(new File(System.getProperty("scraper.archive.dir", "dom_archive")), true);
+        if (args.length >= 2 && args[0].equals("show")) {
+            List<Snapshot> history = archive.history(args[1]);
+            int back = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+            if (back >= history.size()) {
+                System.out.println("No snapshot " + back + " for " + args[1]);
+            } else {
+                System.out.println(archive.read(history.get(history.size() - 1 - back)));
+            }
+        } else {
+            for (String url : archive.urls()) {
+                List<Snapshot> history = archive.history(url);
+                Snapshot latest = history.get(history.size() - 1);
+                System.out.println(url + " | " + history.size() + " snapshot(s) | latest " + latest.capturedAt
+                        + " | " + latest.sha256.substring(0, 12) + " | " + latest.rawLength + " bytes");
+            }
+        }
+        archive.close();
+    }
+}
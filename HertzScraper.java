@@ -1,7 +1,6 @@
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.Keys;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -10,33 +9,37 @@ import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.NoAlertPresentException;
 import org.openqa.selenium.Alert;
 import java.time.Duration;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 
 public class HertzScraper {
 
+    // Overridable so the scraper can run against a local stand-in site (see SyntheticRentalSite)
+    static final String BASE_URL = System.getProperty("enterprise.baseUrl", "https://www.enterprise.ca");
+
+    // Pickup location typed into the reservation form; vehicle rows are cached under it
+    static final String PICKUP_LOCATION = "Toronto Pearson International Airport";
+
     private static void handleAlert(WebDriver driver) {
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(5));
+            WebDriverWait wait = new RecordingWait(driver, Duration.ofSeconds(5));
             Alert alert = wait.until(ExpectedConditions.alertIsPresent());
-            System.out.println("Alert text: " + alert.getText());
+            ScraperLog.info("alert present", "text", alert.getText());
             alert.accept(); 
-            System.out.println("Alert accepted.");
+            ScraperLog.debug("alert accepted");
         } catch (NoAlertPresentException e) {
-            System.out.println("No alert present.");
+            ScraperLog.debug("no alert present");
         } catch (Exception e) {
-            System.out.println("Error handling alert: " + e.getMessage());
+            ScraperLog.warn("alert handling failed", "error", e.getMessage());
         }
     }
 
     // Task 2: Crawl multiple pages from the same website
-    private static void crawlMultiplePages(WebDriver driver, WebDriverWait wait, List<String[]> allScrapedData) {
+    private static void crawlMultiplePages(WebDriver driver, WebDriverWait wait, RowSink allScrapedData) {
         String[] pagesToCrawl = {
-            "https://www.enterprise.ca/en/car-rental/locations/canada.html",
-            "https://www.enterprise.ca/en/rental-cars/ca/cars.html",
-            "https://www.enterprise.ca/en/reserve/receipts.html"
+            BASE_URL + "/en/car-rental/locations/canada.html",
+            BASE_URL + "/en/rental-cars/ca/cars.html",
+            BASE_URL + "/en/reserve/receipts.html"
         };
         
         String[] pageDescriptions = {
@@ -45,63 +48,107 @@ public class HertzScraper {
             "Help & Support Page"
         };
         
+        // Multi-tab mode: all pages load as tabs of this one browser
+        int tabs = TabScheduler.configuredTabs();
+        if (tabs > 1) {
+            List<TabScheduler.TabTask> tasks = new ArrayList<>();
+            for (int i = 0; i < pagesToCrawl.length; i++) {
+                final int pageIndex = i;
+                tasks.add(new TabScheduler.TabTask() {
+                    public String url() {
+                        return pagesToCrawl[pageIndex];
+                    }
+
+                    public void extract(WebDriver tabDriver) {
+                        crawlPage(tabDriver, wait, pageIndex, pagesToCrawl[pageIndex], pageDescriptions[pageIndex], allScrapedData);
+                    }
+                });
+            }
+            new TabScheduler(driver, tabs).runAll(tasks);
+            return;
+        }
+
         for (int i = 0; i < pagesToCrawl.length; i++) {
+            ScraperLog.info("crawling page", "page", i + 1, "url", pagesToCrawl[i]);
             try {
-                System.out.println("Crawling page " + (i+1) + ": " + pagesToCrawl[i]);
-                driver.get(pagesToCrawl[i]);
-                
-                // Handle cookie banner on each page
-                try {
-                    WebElement closeCookieButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//button[contains(text(), 'CLOSE')]")));
-                    closeCookieButton.click();
-                    System.out.println("Cookie banner closed on " + pageDescriptions[i]);
-                } catch (Exception e) {
-                    System.out.println("No cookie banner found on " + pageDescriptions[i]);
-                }
-                
-                // Handle any alerts
-                handleAlert(driver);
-                
-                // Wait for page to load completely
-                wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
-                
-                String pageTitle = driver.getTitle();
-                System.out.println("Page title: " + pageTitle);
-                
-                // Extract main heading
-                try {
-                    WebElement mainHeading = wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("h1")));
-                    String headingText = mainHeading.getText();
-                    allScrapedData.add(new String[]{pageTitle.replace(",", ""), pageDescriptions[i] + " - Main Heading", headingText.replace(",", ""), pagesToCrawl[i]});
-                    System.out.println("Main heading: " + headingText);
-                } catch (Exception e) {
-                    System.out.println("Could not find main heading on " + pageDescriptions[i]);
-                    allScrapedData.add(new String[]{pageTitle.replace(",", ""), pageDescriptions[i] + " - Main Heading", "No heading found", pagesToCrawl[i]});
-                }
-                
-                // Page-specific data extraction
+                CdpTransport.get(driver, pagesToCrawl[i]);
+            } catch (Exception e) {
+                ScraperLog.warn("page crawl failed", "page", i + 1, "error", e.getMessage());
+                allScrapedData.add(new String[]{"Error", pageDescriptions[i], "Failed to load page", e.getMessage()});
+                continue;
+            }
+            crawlPage(driver, wait, i, pagesToCrawl[i], pageDescriptions[i], allScrapedData);
+
+            try {
+                Thread.sleep(3000); // Pause between pages
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Extract one already-loaded page (shared by the sequential and the multi-tab crawl)
+    static void crawlPage(WebDriver driver, WebDriverWait wait, int i, String pageUrl, String pageDescription, RowSink allScrapedData) {
+        try {
+            // Handle cookie banner on each page
+            if (closeCookieBanner(driver, pageDescription)) {
+                ScraperLog.debug("cookie banner closed", "pageType", pageDescription);
+            } else {
+                ScraperLog.debug("no cookie banner", "pageType", pageDescription);
+            }
+
+            // Handle any alerts
+            handleAlert(driver);
+
+            // Wait for page to load completely
+            wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+
+            String pageTitle = driver.getTitle();
+            ScraperLog.debug("page loaded", "title", pageTitle);
+            DomArchive.capture(driver);
+
+            // Extract main heading
+            try {
+                WebElement mainHeading = StrategyRegistry.SHARED.find(driver, "enterprise", pageDescription, "main-heading",
+                        Duration.ofSeconds(10), StrategyRegistry.present(By.tagName("h1")));
+                String headingText = mainHeading.getText();
+                allScrapedData.add(new String[]{RowText.label(pageTitle), pageDescription + " - Main Heading", RowText.stripCommas(headingText), pageUrl});
+                ScraperLog.debug("main heading", "text", headingText);
+            } catch (Exception e) {
+                ScraperLog.warn("main heading not found", "pageType", pageDescription);
+                allScrapedData.add(new String[]{RowText.label(pageTitle), pageDescription + " - Main Heading", "No heading found", pageUrl});
+            }
+
+            // Page-specific data extraction
+            try (ScraperEvents.Stage stage = ScraperEvents.stage("enterprise", pageDescription, allScrapedData)) {
                 if (i == 0) { // Canada Locations Page
-                    extractCanadaLocationData(driver, wait, allScrapedData, pageTitle);
+                    extractCanadaLocationData(driver, wait, stage.rows(), pageTitle);
                 } else if (i == 1) { // Debit Cards Page
-                    extractDebitCardInfo(driver, wait, allScrapedData, pageTitle);
+                    extractDebitCardInfo(driver, wait, stage.rows(), pageTitle);
                 } else if (i == 2) { // Help Page
-                    extractHelpPageInfo(driver, wait, allScrapedData, pageTitle);
+                    extractHelpPageInfo(driver, wait, stage.rows(), pageTitle);
                 }
-                
-                Thread.sleep(3000); // Pause between pages
-                
-            } catch (Exception e) {
-                System.out.println("Error crawling page " + (i+1) + ": " + e.getMessage());
-                allScrapedData.add(new String[]{"Error", pageDescriptions[i], "Failed to load page", e.getMessage()});
             }
+
+        } catch (Exception e) {
+            ScraperLog.warn("page crawl failed", "page", i + 1, "error", e.getMessage());
+            allScrapedData.add(new String[]{"Error", pageDescription, "Failed to load page", e.getMessage()});
         }
     }
     
-    private static void extractCanadaLocationData(WebDriver driver, WebDriverWait wait, List<String[]> allScrapedData, String pageTitle) {
+    private static void extractCanadaLocationData(WebDriver driver, WebDriverWait wait, RowSink allScrapedData, String pageTitle) {
+        extractLocationLinks(driver, pageTitle, allScrapedData, 5); // Limit to first 5
+    }
+
+    /**
+     * Add a row for each of the first limit location links on the page
+     */
+    static void extractLocationLinks(WebDriver driver, String pageTitle, RowSink allScrapedData, int limit) {
         try {
             // Look for location links or city names
             List<WebElement> locationLinks = driver.findElements(By.xpath("//a[contains(@href, '/locations/canada/')]"));
-            int locationCount = Math.min(5, locationLinks.size()); // Limit to first 5
+            int locationCount = Math.min(limit, locationLinks.size());
             
             for (int i = 0; i < locationCount; i++) {
                 try {
@@ -110,81 +157,69 @@ public class HertzScraper {
                     String locationUrl = link.getAttribute("href");
                     
                     if (!locationName.isEmpty() && !locationName.contains("View Details")) {
-                        allScrapedData.add(new String[]{pageTitle.replace(",", ""), "Canada Location " + (i+1), locationName.replace(",", ""), locationUrl});
-                        System.out.println("Found location: " + locationName);
+                        allScrapedData.add(new String[]{RowText.label(pageTitle), "Canada Location " + (i+1), RowText.stripCommas(locationName), locationUrl});
+                        ScraperLog.debug("location found", "index", i + 1, "location", locationName);
                     }
                 } catch (Exception e) {
-                    System.out.println("Error extracting location " + (i+1) + ": " + e.getMessage());
+                    ScraperLog.warn("location extraction failed", "index", i + 1, "error", e.getMessage());
                 }
             }
         } catch (Exception e) {
-            System.out.println("Error extracting Canada location data: " + e.getMessage());
+            ScraperLog.warn("Canada location extraction failed", "error", e.getMessage());
         }
     }
     
-    private static void extractDebitCardInfo(WebDriver driver, WebDriverWait wait, List<String[]> allScrapedData, String pageTitle) {
+    private static void extractDebitCardInfo(WebDriver driver, WebDriverWait wait, RowSink allScrapedData, String pageTitle) {
         try {
-            // Look for information sections or bullet points
-            List<WebElement> infoSections = driver.findElements(By.xpath("//p | //li"));
+            // Main-content text blocks only (no header/footer boilerplate), with the heading they sit under
+            List<ContentExtractor.Block> blocks = ContentExtractor.extract(driver, 50);
             int infoCount = 0;
             
-            for (WebElement section : infoSections) {
-                try {
-                    String text = section.getText().trim();
-                    if (!text.isEmpty() && text.length() > 20 && text.length() < 200 && infoCount < 3) {
-                        allScrapedData.add(new String[]{pageTitle.replace(",", ""), "Debit Card Info " + (infoCount+1), text.replace(",", ""), ""});
-                        System.out.println("Found info: " + text.substring(0, Math.min(50, text.length())) + "...");
-                        infoCount++;
-                    }
-                } catch (Exception e) {
-                    continue;
+            for (ContentExtractor.Block block : blocks) {
+                String text = block.text;
+                if (!block.isHeading() && text.length() > 20 && text.length() < 200 && infoCount < 3) {
+                    allScrapedData.add(new String[]{RowText.label(pageTitle), "Debit Card Info " + (infoCount+1), RowText.stripCommas(text), RowText.stripCommas(block.section)});
+                    ScraperLog.debug("debit card info found", "index", infoCount + 1, "text", RowText.clean(text, ',', 50));
+                    infoCount++;
                 }
             }
         } catch (Exception e) {
-            System.out.println("Error extracting debit card info: " + e.getMessage());
+            ScraperLog.warn("debit card info extraction failed", "error", e.getMessage());
         }
     }
     
-    private static void extractHelpPageInfo(WebDriver driver, WebDriverWait wait, List<String[]> allScrapedData, String pageTitle) {
+    private static void extractHelpPageInfo(WebDriver driver, WebDriverWait wait, RowSink allScrapedData, String pageTitle) {
         try {
-            // Look for FAQ sections or help topics
-            List<WebElement> helpTopics = driver.findElements(By.xpath("//h2 | //h3"));
-            int topicCount = Math.min(5, helpTopics.size());
+            // FAQ sections or help topics: h2/h3 headings of the main content region
+            List<ContentExtractor.Block> blocks = ContentExtractor.extract(driver, 100);
+            int topicCount = 0;
             
-            for (int i = 0; i < topicCount; i++) {
-                try {
-                    WebElement topic = helpTopics.get(i);
-                    String topicText = topic.getText().trim();
-                    
-                    if (!topicText.isEmpty()) {
-                        allScrapedData.add(new String[]{pageTitle.replace(",", ""), "Help Topic " + (i+1), topicText.replace(",", ""), ""});
-                        System.out.println("Found help topic: " + topicText);
-                    }
-                } catch (Exception e) {
-                    System.out.println("Error extracting help topic " + (i+1) + ": " + e.getMessage());
+            for (ContentExtractor.Block block : blocks) {
+                if ((block.level == 2 || block.level == 3) && topicCount < 5) {
+                    allScrapedData.add(new String[]{RowText.label(pageTitle), "Help Topic " + (topicCount+1), RowText.stripCommas(block.text), ""});
+                    ScraperLog.debug("help topic found", "index", topicCount + 1, "topic", block.text);
+                    topicCount++;
                 }
             }
         } catch (Exception e) {
-            System.out.println("Error extracting help page info: " + e.getMessage());
+            ScraperLog.warn("help page extraction failed", "error", e.getMessage());
         }
     }
 
     // Task 3: Advanced Selenium - Handle vehicle image pop-ups/modals (MOVED TO END)
-    private static void handleVehicleImagePopups(WebDriver driver, WebDriverWait wait, List<String[]> allScrapedData, String pageTitle) {
+    private static void handleVehicleImagePopups(WebDriver driver, WebDriverWait wait, RowSink allScrapedData, String pageTitle) {
         try {
-            System.out.println("\n=== TASK 3: Demonstrating Advanced Selenium Commands ===");
-            System.out.println("Navigating back to vehicle selection page for advanced Selenium demonstrations...");
+            ScraperLog.info("task 3: advanced Selenium commands");
+            ScraperLog.debug("navigating back to vehicle selection page");
             
             // Navigate to the vehicle page for Task 3
-            driver.get("https://www.enterprise.ca/en/car-rental.html");
+            CdpTransport.get(driver, BASE_URL + "/en/car-rental.html");
             
             // Handle cookie banner
-            try {
-                WebElement closeCookieButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//button[contains(text(), 'CLOSE')]")));
-                closeCookieButton.click();
-                System.out.println("Cookie banner closed for Task 3.");
-            } catch (Exception e) {
-                System.out.println("No cookie banner found for Task 3.");
+            if (closeCookieBanner(driver, "reservation")) {
+                ScraperLog.debug("cookie banner closed");
+            } else {
+                ScraperLog.debug("no cookie banner");
             }
 
             // Fill out the form again to get to vehicle page
@@ -195,14 +230,11 @@ public class HertzScraper {
                 Thread.sleep(2000);
                 
                 try {
-                    WebElement pearsonOption = wait.until(ExpectedConditions.elementToBeClickable(
-                        By.xpath("//li[@id='location-1019226']//button[@data-location-type='airports'] | " +
-                                "//li[contains(@class, 'location-group__item')]//span[contains(text(), 'Toronto Pearson International Airport')]/..")
-                    ));
+                    WebElement pearsonOption = findPickupSuggestion(driver);
                     pearsonOption.click();
-                    System.out.println("Selected airport for Task 3");
+                    ScraperLog.debug("selected airport suggestion");
                 } catch (Exception e) {
-                    System.out.println("Using manual entry for Task 3");
+                    ScraperLog.debug("no airport suggestion, using manual entry");
                 }
 
                 WebElement browseVehiclesBtn = wait.until(ExpectedConditions.elementToBeClickable(By.id("continueButton")));
@@ -210,443 +242,462 @@ public class HertzScraper {
                 Thread.sleep(3000);
                 
             } catch (Exception e) {
-                System.out.println("Error setting up form for Task 3: " + e.getMessage());
+                ScraperLog.warn("reservation form setup failed", "error", e.getMessage());
                 return;
             }
 
             // Advanced Selenium Task 3: Demonstrate advanced interactions
             try {
-                WebDriverWait vehicleWait = new WebDriverWait(driver, Duration.ofSeconds(15));
+                WebDriverWait vehicleWait = new RecordingWait(driver, Duration.ofSeconds(15));
                 vehicleWait.until(ExpectedConditions.presenceOfElementLocated(By.xpath("//li[contains(@class, 'vehicle-list__item')]")));
                 
                 List<WebElement> vehicleElements = driver.findElements(By.xpath("//li[contains(@class, 'vehicle-list__item')]"));
                 
                 if (!vehicleElements.isEmpty()) {
-                    System.out.println("=== Advanced Selenium Demonstrations ===");
                     
                     // Advanced Task 3.1: JavaScript Execution
-                    System.out.println("\n--- Advanced Task 3.1: JavaScript Execution ---");
+                    ScraperLog.debug("task 3.1: JavaScript execution");
                     try {
                         JavascriptExecutor js = (JavascriptExecutor) driver;
                         
                         // Get page info using JavaScript
                         String pageInfo = (String) js.executeScript("return 'Page Title: ' + document.title + ', URL: ' + window.location.href + ', Vehicle Count: ' + document.querySelectorAll('li[class*=\"vehicle-list__item\"]').length;");
-                        System.out.println("JavaScript execution result: " + pageInfo);
-                        allScrapedData.add(new String[]{pageTitle, "Advanced JS Execution", "Page Information", pageInfo.replace(",", "")});
-                        
-                        // Scroll to bottom using JavaScript
-                        js.executeScript("window.scrollTo(0, document.body.scrollHeight);");
-                        Thread.sleep(1000);
-                        System.out.println("✓ Scrolled to bottom using JavaScript");
-                        
-                        // Scroll back to top
-                        js.executeScript("window.scrollTo(0, 0);");
-                        Thread.sleep(1000);
-                        System.out.println("✓ Scrolled to top using JavaScript");
-                        
+                        ScraperLog.debug("JavaScript execution result", "result", pageInfo);
+                        allScrapedData.add(new String[]{pageTitle, "Advanced JS Execution", "Page Information", RowText.stripCommas(pageInfo)});
                     } catch (Exception e) {
-                        System.out.println("Error in JavaScript execution: " + e.getMessage());
+                        ScraperLog.warn("JavaScript execution failed", "error", e.getMessage());
                     }
                     
-                    // Advanced Task 3.2: Advanced Element Interactions
-                    System.out.println("\n--- Advanced Task 3.2: Advanced Element Interactions ---");
-                    int vehiclesToTest = Math.min(3, vehicleElements.size());
-                    
-                    for (int i = 0; i < vehiclesToTest; i++) {
-                        try {
-                            WebElement vehicle = vehicleElements.get(i);
-                            String vehicleName = "Vehicle " + (i + 1);
-                            
-                            try {
-                                vehicleName = vehicle.findElement(By.xpath(".//h2[@class='mb-0']")).getText();
-                            } catch (Exception e) {
-                                vehicleName = "Vehicle " + (i + 1);
-                            }
-                            
-                            System.out.println("Testing advanced interactions for: " + vehicleName);
-                            
-                            // Advanced Selenium: Scroll element into view
-                            ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", vehicle);
-                            Thread.sleep(1000);
-                            System.out.println("✓ Smooth scrolled to vehicle using JavaScript");
-                            
-                            // Advanced Selenium: Highlight element
-                            ((JavascriptExecutor) driver).executeScript("arguments[0].style.border='3px solid red';", vehicle);
-                            Thread.sleep(1000);
-                            System.out.println("✓ Highlighted vehicle element with red border");
-                            
-                            // Advanced Selenium: Get element properties
-                            String elementInfo = (String) ((JavascriptExecutor) driver).executeScript(
-                                "var rect = arguments[0].getBoundingClientRect(); " +
-                                "return 'Position: (' + Math.round(rect.left) + ',' + Math.round(rect.top) + '), Size: ' + Math.round(rect.width) + 'x' + Math.round(rect.height);", 
-                                vehicle);
-                            System.out.println("✓ Element properties: " + elementInfo);
-                            allScrapedData.add(new String[]{pageTitle, "Advanced Element Info " + (i+1), vehicleName + " Properties", elementInfo});
-                            
-                            // Remove highlight
-                            ((JavascriptExecutor) driver).executeScript("arguments[0].style.border='';", vehicle);
-                            
-                            // Advanced Selenium: Try to find and interact with clickable image
-                            try {
-                                WebElement imageButton = vehicle.findElement(By.xpath(".//button[contains(@class, 'car-item__vehicle-image--clickable')] | .//img | .//div[contains(@class, 'image')]"));
-                                
-                                // Highlight the clickable element
-                                ((JavascriptExecutor) driver).executeScript("arguments[0].style.outline='3px solid blue';", imageButton);
-                                System.out.println("✓ Found and highlighted clickable image element");
-                                
-                                // Advanced click using JavaScript
-                                ((JavascriptExecutor) driver).executeScript("arguments[0].click();", imageButton);
-                                System.out.println("✓ Clicked using JavaScript execution");
-                                
-                                // Wait for potential modal/popup
-                                try {
-                                    WebElement modal = wait.until(ExpectedConditions.presenceOfElementLocated(
-                                        By.xpath("//div[contains(@class, 'modal') or contains(@class, 'dialog') or contains(@class, 'overlay') or contains(@class, 'popup') or contains(@role, 'dialog')]")
-                                    ));
-                                    System.out.println("✓ Modal/popup detected for " + vehicleName);
-                                    
-                                    // Advanced modal handling
-                                    String modalText = modal.getText();
-                                    if (!modalText.trim().isEmpty()) {
-                                        allScrapedData.add(new String[]{pageTitle, "Advanced Modal Content " + (i+1), vehicleName + " Modal", modalText.replace(",", "").substring(0, Math.min(100, modalText.length())) + "..."});
-                                    }
-                                    
-                                    // Advanced modal closing techniques
-                                    try {
-                                        // Method 1: Find close button
-                                        WebElement closeBtn = modal.findElement(By.xpath(".//button[contains(@class, 'close') or contains(@aria-label, 'close')] | .//*[contains(text(), '×')] | .//*[contains(text(), 'Close')]"));
-                                        closeBtn.click();
-                                        System.out.println("✓ Closed modal using close button");
-                                    } catch (Exception e1) {
-                                        try {
-                                            // Method 2: ESC key
-                                            modal.sendKeys(Keys.ESCAPE);
-                                            System.out.println("✓ Closed modal using ESC key");
-                                        } catch (Exception e2) {
-                                            try {
-                                                // Method 3: Click outside modal
-                                                ((JavascriptExecutor) driver).executeScript("document.body.click();");
-                                                System.out.println("✓ Closed modal by clicking outside");
-                                            } catch (Exception e3) {
-                                                System.out.println("Modal close methods attempted");
-                                            }
-                                        }
-                                    }
-                                    
-                                    // Wait for modal to disappear
-                                    wait.until(ExpectedConditions.invisibilityOf(modal));
-                                    
-                                } catch (Exception modalException) {
-                                    System.out.println("No modal appeared or different interaction mechanism");
-                                }
-                                
-                                // Remove highlight
-                                ((JavascriptExecutor) driver).executeScript("arguments[0].style.outline='';", imageButton);
-                                
-                            } catch (Exception imageException) {
-                                System.out.println("No clickable image found for " + vehicleName + ": " + imageException.getMessage());
+                    // Advanced Task 3.2: Vehicle Detail Harvest
+                    ScraperLog.debug("task 3.2: vehicle detail harvest");
+                    // Modal/detail content for every card in one script run: hidden dialogs are read straight
+                    // from the DOM, the rest are opened, read and closed in-page without scrolling or sleeps
+                    try {
+                        long harvestStart = System.currentTimeMillis();
+                        List<DetailHarvester.Detail> details = DetailHarvester.harvestEnterprise(driver);
+                        int withContent = 0;
+                        for (DetailHarvester.Detail detail : details) {
+                            String vehicleName = detail.name.isEmpty() ? "Vehicle " + (detail.index + 1) : detail.name;
+                            if (!detail.detail.isEmpty()) {
+                                withContent++;
+                                allScrapedData.add(new String[]{pageTitle, "Advanced Modal Content " + (detail.index + 1), RowText.stripCommas(vehicleName) + " Modal", RowText.stripCommas(detail.detail)});
+                            } else {
+                                ScraperLog.debug("no modal content", "vehicle", vehicleName);
                             }
-                            
-                            Thread.sleep(2000); // Pause between vehicles
-                            
-                        } catch (Exception vehicleException) {
-                            System.out.println("Error with advanced interactions for vehicle " + (i+1) + ": " + vehicleException.getMessage());
                         }
+                        ScraperLog.info("vehicle details harvested", "withContent", withContent, "vehicles", details.size(),
+                                "durationMs", System.currentTimeMillis() - harvestStart);
+                    } catch (Exception e) {
+                        ScraperLog.warn("vehicle detail harvest failed", "error", e.getMessage());
                     }
                     
                     // Advanced Task 3.3: Advanced Navigation and Window Handling
-                    System.out.println("\n--- Advanced Task 3.3: Advanced Navigation Techniques ---");
+                    ScraperLog.debug("task 3.3: navigation techniques");
                     try {
                         // Get current URL
                         String currentUrl = driver.getCurrentUrl();
-                        System.out.println("Current URL: " + currentUrl);
+                        ScraperLog.debug("current URL", "current", currentUrl);
                         
                         // Advanced navigation: Refresh page
                         driver.navigate().refresh();
                         Thread.sleep(2000);
-                        System.out.println("✓ Page refreshed using navigate().refresh()");
+                        ScraperLog.debug("page refreshed");
                         
                         // Advanced navigation: Back and forward
                         driver.navigate().back();
                         Thread.sleep(1000);
-                        System.out.println("✓ Navigated back");
+                        ScraperLog.debug("navigated back");
                         
                         driver.navigate().forward();
                         Thread.sleep(1000);
-                        System.out.println("✓ Navigated forward");
+                        ScraperLog.debug("navigated forward");
                         
-                        // Advanced: Get page source length
-                        int pageSourceLength = driver.getPageSource().length();
-                        System.out.println("✓ Page source length: " + pageSourceLength + " characters");
-                        allScrapedData.add(new String[]{pageTitle, "Advanced Navigation", "Page Source Analysis", "Length: " + pageSourceLength + " chars"});
+                        // Advanced: Archive the rendered page source (content-addressed, so a repeat visit is free)
+                        DomArchive.Snapshot snapshot = DomArchive.capture(driver);
+                        if (snapshot != null) {
+                            ScraperLog.debug("page source archived", "utf8Bytes", snapshot.rawLength, "sha256", snapshot.sha256.substring(0, 12),
+                                    "unchanged", snapshot.deduplicated);
+                            allScrapedData.add(new String[]{pageTitle, "Advanced Navigation", "Page Source Analysis",
+                                    "Length: " + snapshot.rawLength + " bytes (UTF-8) | SHA-256: " + snapshot.sha256});
+                        } else {
+                            int pageSourceLength = driver.getPageSource().length();
+                            ScraperLog.debug("page source read", "characters", pageSourceLength);
+                            allScrapedData.add(new String[]{pageTitle, "Advanced Navigation", "Page Source Analysis", "Length: " + pageSourceLength + " chars"});
+                        }
                         
                         // Advanced: Window size manipulation
                         org.openqa.selenium.Dimension originalSize = driver.manage().window().getSize();
-                        System.out.println("✓ Original window size: " + originalSize.width + "x" + originalSize.height);
+                        ScraperLog.debug("original window size", "width", originalSize.width, "height", originalSize.height);
                         
                         // Resize window
                         driver.manage().window().setSize(new org.openqa.selenium.Dimension(1200, 800));
                         Thread.sleep(1000);
-                        System.out.println("✓ Resized window to 1200x800");
+                        ScraperLog.debug("resized window", "width", 1200, "height", 800);
                         
                         // Restore original size
                         driver.manage().window().setSize(originalSize);
                         Thread.sleep(1000);
-                        System.out.println("✓ Restored original window size");
+                        ScraperLog.debug("restored window size");
                         
                     } catch (Exception navException) {
-                        System.out.println("Error in advanced navigation: " + navException.getMessage());
+                        ScraperLog.warn("navigation demo failed", "error", navException.getMessage());
                     }
                     
-                    System.out.println("\n=== Task 3 Advanced Selenium Demonstrations Completed ===");
+                    ScraperLog.debug("task 3 completed");
                     
                 } else {
-                    System.out.println("No vehicles found for advanced Selenium demonstrations");
+                    ScraperLog.warn("no vehicles found for task 3");
                 }
                 
             } catch (Exception e) {
-                System.out.println("Error in advanced Selenium demonstrations: " + e.getMessage());
+                ScraperLog.warn("task 3 failed", "error", e.getMessage());
             }
             
         } catch (Exception e) {
-            System.out.println("Error in handleVehicleImagePopups (Task 3): " + e.getMessage());
+            ScraperLog.warn("task 3 setup failed", "error", e.getMessage());
         }
     }
 
-    public static void main(String[] args) {
-        System.setProperty("webdriver.chrome.driver", "/usr/local/bin/chromedriver");
+    // Vehicle card fields, in the order returned by readVehicleFields and VEHICLE_FIELDS_SCRIPT
+    private static final int CODE = 0, NAME = 1, DESCRIPTION = 2, PRICE_SYMBOL = 3, PRICE_UNIT = 4,
+            PRICE_FRACTION = 5, PRICE_MESSAGE = 6, TRANSMISSION = 7, PASSENGERS = 8, BAGS = 9, FIELD_COUNT = 10;
 
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
+    // Same XPath locators as readVehicleFields, evaluated in the page for every card in one call
+    private static final String VEHICLE_FIELDS_SCRIPT =
+        "function first(card, xpath) {" +
+        "  var node = document.evaluate(xpath, card, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+        "  return node ? node.innerText.trim() : null;" +
+        "}" +
+        "var cards = document.evaluate(\"//li[contains(@class, 'vehicle-list__item')]\", document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+        "var result = [];" +
+        "for (var i = 0; i < cards.snapshotLength; i++) {" +
+        "  var card = cards.snapshotItem(i);" +
+        "  var attributes = document.evaluate(\".//section[@class='car-item__vehicle-attributes-item']//span[@class='descriptor mb-0']\", card, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+        "  var enough = attributes.snapshotLength >= 3;" +
+        "  result.push([" +
+        "    first(card, \".//p[@class='vehicle-item__tour-info mb-0']\"), first(card, \".//h2[@class='mb-0']\")," +
+        "    first(card, \".//p[@class='descriptor mb-0']\"), first(card, \".//span[@class='rs-price-tag__symbol']\")," +
+        "    first(card, \".//span[@class='rs-price-tag__unit']\"), first(card, \".//span[@class='rs-price-tag__fraction']\")," +
+        "    first(card, \".//p[contains(@class, 'car-item__price-details-message')]\")," +
+        "    enough ? attributes.snapshotItem(0).innerText.trim() : ''," +
+        "    enough ? attributes.snapshotItem(1).innerText.trim() : ''," +
+        "    enough ? attributes.snapshotItem(2).innerText.trim() : '']);" +
+        "}" +
+        "return result;";
 
-        WebDriver driver = new ChromeDriver(options);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+    // Task 1: extract every vehicle card on the current results page
+    @SuppressWarnings("unchecked")
+    static void extractVehicleOptions(WebDriver driver, String pageTitle, RowSink rows) {
+        try {
+            WebDriverWait vehicleWait = new RecordingWait(driver, Duration.ofSeconds(15));
+            vehicleWait.until(ExpectedConditions.presenceOfElementLocated(By.xpath("//li[contains(@class, 'vehicle-list__item')]")));
+            DomArchive.capture(driver);
+            
+            // DevTools transport: all cards in one round trip instead of ~10 WebDriver commands per card
+            CdpTransport transport = CdpTransport.forDriver(driver);
+            List<Object> cards = null;
+            if (transport != null) {
+                try {
+                    cards = (List<Object>) transport.callFunction(VEHICLE_FIELDS_SCRIPT);
+                } catch (Exception e) {
+                    ScraperLog.warn("DevTools extraction failed, using classic WebDriver", "error", e.getMessage());
+                }
+            }
+            if (cards != null) {
+                ScraperLog.info("vehicle options found", "vehicles", cards.size());
+                for (int i = 0; i < cards.size(); i++) {
+                    List<Object> values = (List<Object>) cards.get(i);
+                    String[] fields = new String[FIELD_COUNT];
+                    for (int f = 0; f < FIELD_COUNT; f++) {
+                        fields[f] = values.get(f) == null ? null : values.get(f).toString();
+                    }
+                    addVehicleRow(rows, pageTitle, i, fields);
+                }
+                return;
+            }
+            
+            List<WebElement> vehicleElements = driver.findElements(By.xpath("//li[contains(@class, 'vehicle-list__item')]"));
+            if (!vehicleElements.isEmpty()) {
+                ScraperLog.info("vehicle options found", "vehicles", vehicleElements.size());
+                
+                for (int i = 0; i < vehicleElements.size(); i++) {
+                    try {
+                        addVehicleRow(rows, pageTitle, i, readVehicleFields(vehicleElements.get(i)));
+                    } catch (Exception e) {
+                        ScraperLog.warn("vehicle extraction failed", "index", i + 1, "error", e.getMessage());
+                    }
+                }
+            } else {
+                ScraperLog.warn("no vehicle results on page");
+            }
+        } catch (Exception e) {
+            ScraperLog.warn("vehicle extraction failed", "error", e.getMessage());
+        }
+    }
 
-        List<String[]> allScrapedData = new ArrayList<>();
-        allScrapedData.add(new String[]{"Page Title", "Section", "Vehicle Info", "Details"});
+    // Classic WebDriver path: one findElement/getText per field; missing fields are left null
+    private static String[] readVehicleFields(WebElement vehicle) {
+        String[] fields = new String[FIELD_COUNT];
+        String[] xpaths = {
+            ".//p[@class='vehicle-item__tour-info mb-0']",
+            ".//h2[@class='mb-0']",
+            ".//p[@class='descriptor mb-0']",
+            ".//span[@class='rs-price-tag__symbol']",
+            ".//span[@class='rs-price-tag__unit']",
+            ".//span[@class='rs-price-tag__fraction']",
+            ".//p[contains(@class, 'car-item__price-details-message')]"
+        };
+        for (int f = 0; f < xpaths.length; f++) {
+            // The price message is only a fallback when the price tag is incomplete
+            if (f == PRICE_MESSAGE && fields[PRICE_SYMBOL] != null && fields[PRICE_UNIT] != null && fields[PRICE_FRACTION] != null) {
+                break;
+            }
+            try {
+                fields[f] = vehicle.findElement(By.xpath(xpaths[f])).getText();
+            } catch (Exception e) {
+                fields[f] = null;
+            }
+        }
+        
+        fields[TRANSMISSION] = "";
+        fields[PASSENGERS] = "";
+        fields[BAGS] = "";
+        try {
+            List<WebElement> attributes = vehicle.findElements(By.xpath(".//section[@class='car-item__vehicle-attributes-item']//span[@class='descriptor mb-0']"));
+            if (attributes.size() >= 3) {
+                fields[TRANSMISSION] = attributes.get(0).getText();
+                fields[PASSENGERS] = attributes.get(1).getText();
+                fields[BAGS] = attributes.get(2).getText();
+            }
+        } catch (Exception e) {
+            fields[TRANSMISSION] = "N/A";
+            fields[PASSENGERS] = "N/A";
+            fields[BAGS] = "N/A";
+        }
+        return fields;
+    }
 
+    // Build the CSV row for one vehicle card, whichever transport read its fields
+    private static void addVehicleRow(RowSink rows, String pageTitle, int i, String[] fields) {
+        // Class codes and names repeat on every results page: keep one copy of each
+        String vehicleCode = fields[CODE] == null ? "N/A" : RowText.intern(fields[CODE]);
+        String vehicleName = fields[NAME] == null ? "N/A" : RowText.intern(fields[NAME]);
+        String vehicleDescription = fields[DESCRIPTION] == null ? "N/A" : fields[DESCRIPTION];
+        String transmission = fields[TRANSMISSION];
+        String passengers = fields[PASSENGERS];
+        String bags = fields[BAGS];
+        
+        String priceAmount;
+        PriceParser.Price price = null;
+        if (fields[PRICE_SYMBOL] != null && fields[PRICE_UNIT] != null && fields[PRICE_FRACTION] != null) {
+            priceAmount = fields[PRICE_SYMBOL] + " " + fields[PRICE_UNIT] + fields[PRICE_FRACTION];
+            price = PriceParser.parseEnterprise(fields[PRICE_SYMBOL], fields[PRICE_UNIT], fields[PRICE_FRACTION]);
+        } else if (fields[PRICE_MESSAGE] != null) {
+            priceAmount = fields[PRICE_MESSAGE];
+            price = PriceParser.parse(priceAmount, "CAD", PriceParser.BillingPeriod.DAY);
+        } else {
+            priceAmount = "N/A";
+        }
+        
+        if (!vehicleName.equals("N/A") && !vehicleName.isEmpty() && 
+            !priceAmount.equals("N/A") && !priceAmount.isEmpty() && 
+            !priceAmount.trim().equals("")) {
+            
+            // Built and cleaned in one pass each; normalized numeric rates so rows can be compared across sites
+            String vehicleInfo = RowText.concat(RowText.DROP, Integer.MAX_VALUE,
+                    vehicleCode, " - ", vehicleName, " (", vehicleDescription, ")");
+            String vehicleDetails = RowText.concat(RowText.DROP, Integer.MAX_VALUE,
+                    "Price: ", priceAmount, " | ", String.valueOf(transmission), " | ", String.valueOf(passengers), " | ", String.valueOf(bags),
+                    price == null ? null : " | Per Day: ", price == null ? null : PriceParser.format(price.currency, price.perDayMinor()),
+                    price == null ? null : " | Per Week: ", price == null ? null : PriceParser.format(price.currency, price.perWeekMinor()));
+            rows.add(new String[]{RowText.label(pageTitle), RowText.intern("Vehicle Option " + (i+1)), vehicleInfo, vehicleDetails});
+            OutputPipeline.SHARED.publishListing(VehicleListing.fromEnterprise(PICKUP_LOCATION, vehicleCode, vehicleName,
+                    vehicleDescription, transmission, price), priceAmount);
+            
+            ScraperLog.debug("vehicle extracted", "index", i + 1, "code", vehicleCode, "vehicle", vehicleName, "price", priceAmount);
+        } else {
+            ScraperLog.warn("vehicle skipped, missing data", "index", i + 1, "vehicle", vehicleName, "price", priceAmount);
+        }
+    }
+
+    // Cookie banner CLOSE button; on page types where the banner no longer appears this costs only the short window
+    static boolean closeCookieBanner(WebDriver driver, String page) {
         try {
-            // =============================================
-            // TASK 1: Form Filling and Vehicle Extraction
-            // =============================================
-            System.out.println("=== TASK 1: Form Filling and Vehicle Extraction ===");
+            WebElement close = StrategyRegistry.SHARED.findOptional(driver, "enterprise", page, "cookie-banner", Duration.ofSeconds(10),
+                    StrategyRegistry.clickable(By.xpath("//button[contains(text(), 'CLOSE')]")));
+            if (close == null) {
+                return false;
+            }
+            close.click();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // Autocomplete entry for the pickup airport: the airport button or the location-group item, whichever the page renders
+    private static WebElement findPickupSuggestion(WebDriver driver) {
+        return StrategyRegistry.SHARED.find(driver, "enterprise", "reservation", "pickup-suggestion", Duration.ofSeconds(10),
+                StrategyRegistry.clickable(By.xpath("//li[@id='location-1019226']//button[@data-location-type='airports']")),
+                StrategyRegistry.clickable(By.xpath("//li[contains(@class, 'location-group__item')]//span[contains(text(), 'Toronto Pearson International Airport')]/..")));
+    }
+
+    // Close the cookie banner and submit the reservation form for PICKUP_LOCATION (10:00 AM, age 25+)
+    static void submitReservationForm(WebDriver driver, WebDriverWait wait) {
+        // Handle cookie banner
+        if (closeCookieBanner(driver, "reservation")) {
+            ScraperLog.debug("cookie banner closed");
+        } else {
+            ScraperLog.debug("no cookie banner");
+        }
+
+        // Handle any potential alerts
+        handleAlert(driver);
+
+        // Fill out the booking form
+        try {
+            WebElement locationInput = wait.until(ExpectedConditions.elementToBeClickable(By.id("pickupLocationTextBox")));
+            locationInput.clear();
+            locationInput.sendKeys("Pearson International");
+            Thread.sleep(2000);
             
-            driver.get("https://www.enterprise.ca/en/car-rental.html");
-            driver.manage().window().maximize();
+            try {
+                WebElement pearsonOption = findPickupSuggestion(driver);
+                pearsonOption.click();
+                ScraperLog.debug("selected airport suggestion", "location", PICKUP_LOCATION);
+            } catch (Exception e) {
+                ScraperLog.debug("no airport suggestion, using manual entry");
+            }
 
-            // Handle cookie banner
+            // Set pickup time to 10:00 AM
             try {
-                WebElement closeCookieButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//button[contains(text(), 'CLOSE')]")));
-                closeCookieButton.click();
-                System.out.println("Cookie banner closed.");
+                WebElement pickupTimeSelect = driver.findElement(By.xpath("//select[contains(@aria-label, 'Pick-Up Time Selector')]"));
+                pickupTimeSelect.click();
+                WebElement pickupTime = driver.findElement(By.xpath("//option[@value='10:00 AM']"));
+                pickupTime.click();
+                ScraperLog.debug("pickup time set", "time", "10:00 AM");
             } catch (Exception e) {
-                System.out.println("Cookie banner not found or not clickable on main page.");
+                ScraperLog.warn("could not set pickup time", "error", e.getMessage());
             }
 
-            // Handle any potential alerts
-            handleAlert(driver);
+            // Set return time to 10:00 AM
+            try {
+                WebElement returnTimeSelect = driver.findElement(By.xpath("//select[contains(@aria-label, 'Return Time Selector')]"));
+                returnTimeSelect.click();
+                WebElement returnTime = driver.findElement(By.xpath("//option[@value='10:00 AM']"));
+                returnTime.click();
+                ScraperLog.debug("return time set", "time", "10:00 AM");
+            } catch (Exception e) {
+                ScraperLog.warn("could not set return time", "error", e.getMessage());
+            }
 
-            // Fill out the booking form
+            // Set renter age to 25+
             try {
-                WebElement locationInput = wait.until(ExpectedConditions.elementToBeClickable(By.id("pickupLocationTextBox")));
-                locationInput.clear();
-                locationInput.sendKeys("Pearson International");
-                Thread.sleep(2000);
-                
-                try {
-                    WebElement pearsonOption = wait.until(ExpectedConditions.elementToBeClickable(
-                        By.xpath("//li[@id='location-1019226']//button[@data-location-type='airports'] | " +
-                                "//li[contains(@class, 'location-group__item')]//span[contains(text(), 'Toronto Pearson International Airport')]/..")
-                    ));
-                    pearsonOption.click();
-                    System.out.println("Selected Toronto Pearson International Airport (YYZ)");
-                } catch (Exception e) {
-                    System.out.println("Autocomplete suggestion not found, continuing with manual entry");
-                }
+                WebElement ageSelect = driver.findElement(By.id("age"));
+                ageSelect.click();
+                WebElement age25Plus = driver.findElement(By.xpath("//option[@value='25']"));
+                age25Plus.click();
+                ScraperLog.debug("renter age set", "age", "25+");
+            } catch (Exception e) {
+                ScraperLog.warn("could not set renter age", "error", e.getMessage());
+            }
 
-                // Set pickup time to 10:00 AM
-                try {
-                    WebElement pickupTimeSelect = driver.findElement(By.xpath("//select[contains(@aria-label, 'Pick-Up Time Selector')]"));
-                    pickupTimeSelect.click();
-                    WebElement pickupTime = driver.findElement(By.xpath("//option[@value='10:00 AM']"));
-                    pickupTime.click();
-                    System.out.println("Set pickup time to 10:00 AM");
-                } catch (Exception e) {
-                    System.out.println("Could not set pickup time: " + e.getMessage());
-                }
+            // Click Browse Vehicles button
+            try {
+                WebElement browseVehiclesBtn = wait.until(ExpectedConditions.elementToBeClickable(By.id("continueButton")));
+                browseVehiclesBtn.click();
+                ScraperLog.debug("clicked Browse Vehicles");
+                Thread.sleep(3000);
+            } catch (Exception e) {
+                ScraperLog.warn("could not click Browse Vehicles", "error", e.getMessage());
+            }
 
-                // Set return time to 10:00 AM
-                try {
-                    WebElement returnTimeSelect = driver.findElement(By.xpath("//select[contains(@aria-label, 'Return Time Selector')]"));
-                    returnTimeSelect.click();
-                    WebElement returnTime = driver.findElement(By.xpath("//option[@value='10:00 AM']"));
-                    returnTime.click();
-                    System.out.println("Set return time to 10:00 AM");
-                } catch (Exception e) {
-                    System.out.println("Could not set return time: " + e.getMessage());
-                }
+        } catch (Exception e) {
+            ScraperLog.warn("booking form failed", "error", e.getMessage());
+        }
+    }
 
-                // Set renter age to 25+
-                try {
-                    WebElement ageSelect = driver.findElement(By.id("age"));
-                    ageSelect.click();
-                    WebElement age25Plus = driver.findElement(By.xpath("//option[@value='25']"));
-                    age25Plus.click();
-                    System.out.println("Set renter age to 25+");
-                } catch (Exception e) {
-                    System.out.println("Could not set renter age: " + e.getMessage());
-                }
+    // Browser session used by main and by the crawl daemon's warm pool
+    static WebDriver createDriver() {
+        System.setProperty("webdriver.chrome.driver", "/usr/local/bin/chromedriver");
 
-                // Click Browse Vehicles button
-                try {
-                    WebElement browseVehiclesBtn = wait.until(ExpectedConditions.elementToBeClickable(By.id("continueButton")));
-                    browseVehiclesBtn.click();
-                    System.out.println("Clicked Browse Vehicles button");
-                    Thread.sleep(3000);
-                } catch (Exception e) {
-                    System.out.println("Could not click Browse Vehicles button: " + e.getMessage());
-                }
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
 
-            } catch (Exception e) {
-                System.out.println("Error filling out booking form: " + e.getMessage());
-            }
+        return ScraperEvents.instrument(new ChromeDriver(options));
+    }
+
+    // One full crawl (Tasks 1-3) on an already running browser session
+    static void runCrawl(WebDriver driver) {
+        WebDriverWait wait = new RecordingWait(driver, Duration.ofSeconds(10));
+
+        // Rows stream to the output sinks (hertz_vehicles_complete.csv, ...) as they are added
+        try (RowSink allScrapedData = OutputPipeline.SHARED.dataset("hertz_vehicles_complete")) {
+            allScrapedData.add(new String[]{"Page Title", "Section", "Vehicle Info", "Details"});
+
+            // =============================================
+            // TASK 1: Form Filling and Vehicle Extraction
+            // =============================================
+            ScraperLog.info("task 1: form filling and vehicle extraction");
+        
+            CdpTransport.get(driver, BASE_URL + "/en/car-rental.html");
+            driver.manage().window().maximize();
+
+            submitReservationForm(driver, wait);
 
             // Get page title and heading after form submission
             String page1Title = driver.getTitle();
             try {
                 WebElement page1MainHeading = wait.until(ExpectedConditions.visibilityOfElementLocated(By.tagName("h1")));
                 String page1HeadingText = page1MainHeading.getText();
-                allScrapedData.add(new String[]{page1Title.replace(",", ""), page1HeadingText.replace(",", ""), "", ""});
+                allScrapedData.add(new String[]{RowText.label(page1Title), RowText.stripCommas(page1HeadingText), "", ""});
             } catch (Exception e) {
-                System.out.println("Could not find main heading: " + e.getMessage());
-                allScrapedData.add(new String[]{page1Title.replace(",", ""), "Vehicle Selection Page", "", ""});
+                ScraperLog.warn("main heading not found", "error", e.getMessage());
+                allScrapedData.add(new String[]{RowText.label(page1Title), "Vehicle Selection Page", "", ""});
             }
 
             // Extract vehicle information
-            try {
-                WebDriverWait vehicleWait = new WebDriverWait(driver, Duration.ofSeconds(15));
-                vehicleWait.until(ExpectedConditions.presenceOfElementLocated(By.xpath("//li[contains(@class, 'vehicle-list__item')]")));
-                
-                List<WebElement> vehicleElements = driver.findElements(By.xpath("//li[contains(@class, 'vehicle-list__item')]"));
-                if (!vehicleElements.isEmpty()) {
-                    System.out.println("Found " + vehicleElements.size() + " vehicle options");
-                    
-                    for (int i = 0; i < vehicleElements.size(); i++) {
-                        WebElement vehicle = vehicleElements.get(i);
-                        try {
-                            String vehicleCode = "";
-                            String vehicleName = "";
-                            String vehicleDescription = "";
-                            String priceAmount = "";
-                            String transmission = "";
-                            String passengers = "";
-                            String bags = "";
-                            
-                            try {
-                                vehicleCode = vehicle.findElement(By.xpath(".//p[@class='vehicle-item__tour-info mb-0']")).getText();
-                            } catch (Exception e) {
-                                vehicleCode = "N/A";
-                            }
-                            
-                            try {
-                                vehicleName = vehicle.findElement(By.xpath(".//h2[@class='mb-0']")).getText();
-                            } catch (Exception e) {
-                                vehicleName = "N/A";
-                            }
-                            
-                            try {
-                                vehicleDescription = vehicle.findElement(By.xpath(".//p[@class='descriptor mb-0']")).getText();
-                            } catch (Exception e) {
-                                vehicleDescription = "N/A";
-                            }
-                            
-                            try {
-                                String symbol = vehicle.findElement(By.xpath(".//span[@class='rs-price-tag__symbol']")).getText();
-                                String unit = vehicle.findElement(By.xpath(".//span[@class='rs-price-tag__unit']")).getText();
-                                String fraction = vehicle.findElement(By.xpath(".//span[@class='rs-price-tag__fraction']")).getText();
-                                priceAmount = symbol + " " + unit + fraction;
-                            } catch (Exception e) {
-                                try {
-                                    priceAmount = vehicle.findElement(By.xpath(".//p[contains(@class, 'car-item__price-details-message')]")).getText();
-                                } catch (Exception e2) {
-                                    priceAmount = "N/A";
-                                }
-                            }
-                            
-                            try {
-                                List<WebElement> attributes = vehicle.findElements(By.xpath(".//section[@class='car-item__vehicle-attributes-item']//span[@class='descriptor mb-0']"));
-                                if (attributes.size() >= 3) {
-                                    transmission = attributes.get(0).getText();
-                                    passengers = attributes.get(1).getText();
-                                    bags = attributes.get(2).getText();
-                                }
-                            } catch (Exception e) {
-                                transmission = "N/A";
-                                passengers = "N/A";
-                                bags = "N/A";
-                            }
-                            
-                            if (!vehicleName.equals("N/A") && !vehicleName.isEmpty() && 
-                                !priceAmount.equals("N/A") && !priceAmount.isEmpty() && 
-                                !priceAmount.trim().equals("")) {
-                                
-                                String vehicleInfo = vehicleCode + " - " + vehicleName + " (" + vehicleDescription + ")";
-                                String vehicleDetails = "Price: " + priceAmount + " | " + transmission + " | " + passengers + " | " + bags;
-                                allScrapedData.add(new String[]{page1Title.replace(",", ""), "Vehicle Option " + (i+1), vehicleInfo.replace(",", ""), vehicleDetails.replace(",", "")});
-                                
-                                System.out.println("Extracted vehicle " + (i+1) + ": " + vehicleCode + " - " + vehicleName + " - " + priceAmount);
-                            } else {
-                                System.out.println("Skipping vehicle " + (i+1) + " due to missing data: " + vehicleName + " | " + priceAmount);
-                            }
-                            
-                        } catch (Exception e) {
-                            System.out.println("Could not extract vehicle " + (i+1) + " details: " + e.getMessage());
-                        }
-                    }
-                } else {
-                    System.out.println("No vehicle results found on page");
-                }
-            } catch (Exception e) {
-                System.out.println("Error extracting vehicle information: " + e.getMessage());
+            try (ScraperEvents.Stage stage = ScraperEvents.stage("enterprise", "vehicle-options", allScrapedData)) {
+                extractVehicleOptions(driver, page1Title, stage.rows());
             }
 
             // =============================================
             // TASK 2: Crawling Multiple Pages
             // =============================================
-            System.out.println("\n=== TASK 2: Crawling Multiple Pages ===");
-            crawlMultiplePages(driver, wait, allScrapedData);
+            ScraperLog.info("task 2: crawling multiple pages");
+            try (ScraperEvents.Stage stage = ScraperEvents.stage("enterprise", "multi-page-crawl", allScrapedData)) {
+                crawlMultiplePages(driver, wait, stage.rows());
+            }
 
             // Save data after Task 1 and 2
-            try (FileWriter csvWriter = new FileWriter("hertz_vehicles_tasks_1_and_2.csv")) {
-                for (String[] rowData : allScrapedData) {
-                    csvWriter.append(String.join(",", rowData));
-                    csvWriter.append("\n");
-                }
-                System.out.println("Data from Tasks 1 and 2 saved to hertz_vehicles_tasks_1_and_2.csv");
-            } catch (IOException e) {
-                System.err.println("Error writing to CSV file: " + e.getMessage());
-            }
+            OutputPipeline.SHARED.publishAll("hertz_vehicles_tasks_1_and_2", allScrapedData.rows());
+            ScraperLog.info("tasks 1 and 2 queued", "dataset", "hertz_vehicles_tasks_1_and_2", "rows", allScrapedData.size());
 
             // =============================================
             // TASK 3: Advanced Selenium (AT THE END)
             // =============================================
-            handleVehicleImagePopups(driver, wait, allScrapedData, page1Title);
-
-            // Save final data including Task 3
-            try (FileWriter csvWriter = new FileWriter("hertz_vehicles_complete.csv")) {
-                for (String[] rowData : allScrapedData) {
-                    csvWriter.append(String.join(",", rowData));
-                    csvWriter.append("\n");
-                }
-                System.out.println("Complete data from all 3 tasks saved to hertz_vehicles_complete.csv");
-            } catch (IOException e) {
-                System.err.println("Error writing to final CSV file: " + e.getMessage());
+            try (ScraperEvents.Stage stage = ScraperEvents.stage("enterprise", "advanced-interactions", allScrapedData)) {
+                handleVehicleImagePopups(driver, wait, stage.rows(), page1Title);
             }
 
+            // Wait for the sinks to write (and fsync) everything, including the store sink feeding PriceStats
+            OutputPipeline.SHARED.flush();
+            ScraperLog.info("all tasks saved", "dataset", allScrapedData.dataset(), "rows", allScrapedData.size());
+
+            PriceStats.SHARED.printSummary(VehicleListing.ENTERPRISE);
+        }
+    }
+
+    public static void main(String[] args) {
+        PriceApiServer.startIfEnabled(0);
+        WebDriver driver = createDriver();
+
+        try {
+            runCrawl(driver);
         } finally {
             // driver.quit(); // Commented out to keep Chrome open for debugging
-            System.out.println("Chrome browser left open for debugging. Close manually when done.");
+            ScraperLog.info("Chrome browser left open for debugging, close it manually when done");
         }
     }
 }
\ No newline at end of file
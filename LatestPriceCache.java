@@ -0,0 +1,137 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded in-memory cache of the latest price seen for each listing (site | location | vehicle),
+ * filled by the scrapers as rows are extracted and read by PriceApiServer.
+ *
+ * Lookups are a single ConcurrentHashMap get. Entries older than the TTL are dropped when read;
+ * once the cache holds more than maxEntries, the least recently written entries are evicted.
+ * Sizes come from -Dcache.maxEntries (default 10000) and -Dcache.ttlSeconds (default 3600).
+ */
+public class LatestPriceCache {
+
+    public static final LatestPriceCache SHARED = new LatestPriceCache(
+            Integer.getInteger("cache.maxEntries", 10_000),
+            Long.getLong("cache.ttlSeconds", 3600L) * 1000L);
+
+    /**
+     * One cached listing with the raw price text it was parsed from and when it was written
+     */
+    public static final class Entry {
+        public final String key;
+        public final VehicleListing listing;
+        public final String priceText;
+        public final long updatedAtMillis;
+
+        Entry(String key, VehicleListing listing, String priceText, long updatedAtMillis) {
+            this.key = key;
+            this.listing = listing;
+            this.priceText = priceText;
+            this.updatedAtMillis = updatedAtMillis;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Write order for size eviction; replaced entries stay queued until they are skipped or compacted
+    private final ConcurrentLinkedQueue<Entry> writeOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public LatestPriceCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static String key(String site, String location, String title) {
+        return site + "|" + location + "|" + title;
+    }
+
+    /**
+     * Store the latest price of a listing; listings without a parsed price are ignored
+     */
+    public void put(VehicleListing listing, String priceText) {
+        if (listing == null || listing.price == null) {
+            return;
+        }
+        Entry entry = new Entry(listing.key(), listing, priceText, System.currentTimeMillis());
+        entries.put(entry.key, entry);
+        writeOrder.add(entry);
+        if (queued.incrementAndGet() > maxEntries * 2) {
+            compact();
+        }
+        while (entries.size() > maxEntries) {
+            Entry oldest = writeOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            entries.remove(oldest.key, oldest);
+        }
+    }
+
+    public Entry get(String site, String location, String title) {
+        Entry entry = entries.get(key(site, location, title));
+        return isLive(entry) ? entry : null;
+    }
+
+    /**
+     * Live entries matching every non-null filter; make/model/text compare case-insensitively,
+     * text is a substring of the listing title. Results are ordered by per-day price.
+     */
+    public List<Entry> query(String site, String location, String make, String model, String text, int limit) {
+        String makeFilter = lower(make);
+        String modelFilter = lower(model);
+        String textFilter = lower(text);
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (!isLive(entry)) {
+                continue;
+            }
+            VehicleListing listing = entry.listing;
+            if ((site == null || site.equals(listing.site))
+                    && (location == null || location.equalsIgnoreCase(listing.location))
+                    && (makeFilter == null || makeFilter.equals(listing.make))
+                    && (modelFilter == null || modelFilter.equals(listing.model))
+                    && (textFilter == null || listing.title.toLowerCase(Locale.ROOT).contains(textFilter))) {
+                matches.add(entry);
+            }
+        }
+        matches.sort((a, b) -> Long.compare(a.listing.price.perDayMinor(), b.listing.price.perDayMinor()));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean isLive(Entry entry) {
+        if (entry == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - entry.updatedAtMillis > ttlMillis) {
+            entries.remove(entry.key, entry);
+            return false;
+        }
+        return true;
+    }
+
+    // Drop queue nodes whose entry was overwritten or expired, so repeated crawls of the same listings stay bounded
+    private synchronized void compact() {
+        if (queued.get() <= maxEntries * 2) {
+            return;
+        }
+        writeOrder.removeIf(entry -> entries.get(entry.key) != entry);
+        queued.set(writeOrder.size());
+    }
+
+    private static String lower(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Work queue shared by crawl workers through a directory (local disk or a network mount), with leases.
+ *
+ *   pending/ID.task         waiting; first line is the tab-separated task, second line the attempt count
+ *   leased/ID.TOKEN.task    claimed by a worker; its modification time is the lease heartbeat
+ *   done/ID.task            completed; the task's rows are in results/ID.csv
+ *   failed/ID.task          gave up after maxAttempts
+ *
+ * Claiming and completing are atomic renames, so exactly one worker wins a task. A lease whose heartbeat is
+ * older than leaseMillis belongs to a dead worker and is moved back to pending by whoever notices first.
+ * TOKEN (worker id and a per-claim nonce) names the claim: heartbeat, complete and fail only act on the
+ * worker's own lease file, so a worker whose lease expired and was claimed again cannot touch the new claim.
+ */
+public class LeaseQueue {
+
+    /**
+     * A claimed task: its id and tab-separated fields
+     */
+    public static final class Lease {
+        public final String id;
+        public final String[] fields;
+        public final int attempts;
+        final String token;
+
+        Lease(String id, String[] fields, int attempts, String token) {
+            this.id = id;
+            this.fields = fields;
+            this.attempts = attempts;
+            this.token = token;
+        }
+    }
+
+    private final File pending;
+    private final File leased;
+    private final File done;
+    private final File failed;
+    private final File results;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final String workerId;
+
+    public LeaseQueue(File root, long leaseMillis, int maxAttempts) {
+        this(root, leaseMillis, maxAttempts, ProcessHandle.current().pid() + "");
+    }
+
+    public LeaseQueue(File root, long leaseMillis, int maxAttempts, String workerId) {
+        this.pending = new File(root, "pending");
+        this.leased = new File(root, "leased");
+        this.done = new File(root, "done");
+        this.failed = new File(root, "failed");
+        this.results = new File(root, "results");
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+        this.workerId = workerId.replaceAll("[^A-Za-z0-9-]", "-");
+        for (File dir : new File[]{pending, leased, done, failed, results}) {
+            dir.mkdirs();
+        }
+    }
+
+    public void enqueue(String id, String... fields) throws IOException {
+        write(new File(pending, id + ".task"), String.join("\t", fields) + "\n0\n");
+    }
+
+    /**
+     * Claim the oldest pending task, or return null when there is none
+     */
+    public Lease claim() throws IOException {
+        File[] candidates = pending.listFiles((dir, name) -> name.endsWith(".task"));
+        if (candidates == null) {
+            return null;
+        }
+        Arrays.sort(candidates);
+        for (File candidate : candidates) {
+            // Fresh heartbeat before the move: a task that waited long must not look expired once leased
+            if (!candidate.setLastModified(System.currentTimeMillis())) {
+                continue; // claimed by someone else meanwhile
+            }
+            String id = candidate.getName().substring(0, candidate.getName().length() - ".task".length());
+            String token = workerId + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong() & 0xFFFFFFFFL);
+            File target = new File(leased, id + "." + token + ".task");
+            if (!move(candidate, target)) {
+                continue;
+            }
+            List<String> lines;
+            try {
+                lines = Files.readAllLines(target.toPath(), StandardCharsets.UTF_8);
+            } catch (NoSuchFileException e) {
+                continue; // reclaimed before we could read it: lost the race
+            }
+            int attempts = lines.size() > 1 ? Integer.parseInt(lines.get(1).trim()) : 0;
+            return new Lease(id, lines.get(0).split("\t", -1), attempts, token);
+        }
+        return null;
+    }
+
+    /**
+     * Extend a lease; returns false when it was lost (expired and reclaimed)
+     */
+    public boolean heartbeat(Lease lease) {
+        File file = leaseFile(lease);
+        return file.exists() && file.setLastModified(System.currentTimeMillis());
+    }
+
+    /**
+     * Store the task's rows and mark it done; false (nothing stored) when the lease was lost. Results are written
+     * first and named by task id, so a lease lost between the two steps only overwrites them with the same data.
+     */
+    public boolean complete(Lease lease, List<String[]> rows) throws IOException {
+        File file = leaseFile(lease);
+        if (!file.exists()) {
+            return false;
+        }
+        StringWriter csv = new StringWriter();
+        for (String[] row : rows) {
+            RowText.writeCsvLine(csv, row);
+        }
+        File temp = new File(results, lease.id + ".csv." + ProcessHandle.current().pid() + ".tmp");
+        write(temp, csv.toString());
+        move(temp, new File(results, lease.id + ".csv"));
+        return move(file, new File(done, lease.id + ".task"));
+    }
+
+    /**
+     * Give a task back after an error: retried later, or moved to failed/ after maxAttempts
+     */
+    public void fail(Lease lease) throws IOException {
+        // Take the lease file out of the leased directory first, so a lease lost meanwhile is left alone
+        File returning = new File(leased, "." + lease.id + "." + lease.token + ".returning");
+        if (!move(leaseFile(lease), returning)) {
+            return;
+        }
+        int attempts = lease.attempts + 1;
+        write(new File(attempts >= maxAttempts ? failed : pending, lease.id + ".task"), String.join("\t", lease.fields) + "\n" + attempts + "\n");
+        Files.delete(returning.toPath());
+    }
+
+    /**
+     * Move leases with a stale heartbeat back to pending; returns how many were reclaimed
+     */
+    public int reclaimExpired() throws IOException {
+        File[] leases = leased.listFiles((dir, name) -> name.endsWith(".task"));
+        if (leases == null) {
+            return 0;
+        }
+        int reclaimed = 0;
+        long now = System.currentTimeMillis();
+        for (File file : leases) {
+            // leased/ID.TOKEN.task goes back as pending/ID.task
+            String name = file.getName().substring(0, file.getName().length() - ".task".length());
+            String id = name.substring(0, Math.max(0, name.lastIndexOf('.')));
+            if (!id.isEmpty() && now - file.lastModified() > leaseMillis && move(file, new File(pending, id + ".task"))) {
+                ScraperLog.warn("lease expired, task requeued", "task", id, "lease", file.getName());
+                reclaimed++;
+            }
+        }
+        return reclaimed;
+    }
+
+    public int count(String state) {
+        File dir = new File(pending.getParentFile(), state);
+        String[] names = dir.list((d, name) -> name.endsWith(".task"));
+        return names == null ? 0 : names.length;
+    }
+
+    public boolean isDrained() {
+        return count("pending") == 0 && count("leased") == 0;
+    }
+
+    /**
+     * Result files of completed tasks, in task id order
+     */
+    public List<File> resultFiles() {
+        File[] files = results.listFiles((dir, name) -> name.endsWith(".csv"));
+        List<File> list = new ArrayList<>(files == null ? List.of() : Arrays.asList(files));
+        list.sort(null);
+        return list;
+    }
+
+    private File leaseFile(Lease lease) {
+        return new File(leased, lease.id + "." + lease.token + ".task");
+    }
+
+    private static boolean move(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false; // another worker got there first
+        } catch (AtomicMoveNotSupportedException e) {
+            throw new IOException("Queue directory must support atomic renames: " + e.getMessage());
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Path temp = new File(file.getParentFile(), "." + file.getName() + "." + ProcessHandle.current().pid() + ".tmp").toPath();
+        Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
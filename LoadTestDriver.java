@@ -0,0 +1,169 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the scrapers' extraction code against SyntheticRentalSite.
+ * For every (cards per page, concurrent browsers) combination it runs the real HertzScraper and
+ * SwiftRide extraction methods over the vehicle, location list and location pages and reports
+ * throughput, page latency percentiles and memory, so we can see how the scrapers behave with
+ * 1,000 cards or locations on a page or many parallel sessions.
+ *
+ * Usage: LoadTestDriver [sizes, e.g. 10,100,1000] [concurrency, e.g. 1,2,4] [pages per worker] [latencyMs]
+ */
+public class LoadTestDriver {
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = parseList(args.length > 0 ? args[0] : "10,100,1000");
+        int[] concurrencies = parseList(args.length > 1 ? args[1] : "1,2,4");
+        int pagesPerWorker = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int latency = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        System.setProperty("webdriver.chrome.driver", "/usr/local/bin/chromedriver");
+        List<String> results = new ArrayList<>();
+        results.add("Cards Per Page,Browsers,Pages,Rows,Rows/s,p50 ms,p95 ms,Max ms,JVM Heap MB,Browser Heap MB");
+
+        for (int size : sizes) {
+            SyntheticRentalSite site = new SyntheticRentalSite(size, size, pagesPerWorker, latency, false);
+            int port = site.start(0);
+            String base = "http://localhost:" + port;
+            try {
+                for (int concurrency : concurrencies) {
+                    String line = runScenario(base, size, concurrency, pagesPerWorker);
+                    results.add(line);
+                    System.out.println("RESULT " + line);
+                }
+            } finally {
+                site.stop();
+            }
+        }
+
+        try (FileWriter csvWriter = new FileWriter("load_test_results.csv")) {
+            for (String line : results) {
+                csvWriter.append(line).append("\n");
+            }
+            System.out.println("Load test results saved to load_test_results.csv");
+        } catch (IOException e) {
+            System.err.println("Error writing to CSV file: " + e.getMessage());
+        }
+    }
+
+    private static String runScenario(String base, int size, int concurrency, int pagesPerWorker) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong rowCount = new AtomicLong();
+        AtomicLong browserHeap = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<WebDriver> drivers = new ArrayList<>();
+        double seconds;
+        long jvmHeap;
+        try {
+            for (int w = 0; w < concurrency; w++) {
+                drivers.add(createHeadlessDriver());
+            }
+
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (WebDriver driver : drivers) {
+                futures.add(workers.submit(() -> {
+                    WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+                    for (int page = 1; page <= pagesPerWorker; page++) {
+                        RowSink rows = new RowSink();
+
+                        long pageStart = System.nanoTime();
+                        driver.get(base + "/enterprise/en/reserve.html?page=" + page);
+                        HertzScraper.extractVehicleOptions(driver, driver.getTitle(), rows);
+                        latencies.add((System.nanoTime() - pageStart) / 1_000_000);
+
+                        // Every card, without the popup demo and row cap of SwiftRide.extractVehicleCards
+                        pageStart = System.nanoTime();
+                        driver.get(base + "/swiftride/cars?page=" + page);
+                        String title = driver.getTitle();
+                        List<String[]> cards = SwiftRide.readVehicleCards(driver);
+                        for (int i = 0; i < cards.size(); i++) {
+                            SwiftRide.addVehicleRow(rows, title, "Vehicle " + (i + 1), cards.get(i));
+                        }
+                        latencies.add((System.nanoTime() - pageStart) / 1_000_000);
+
+                        pageStart = System.nanoTime();
+                        driver.get(base + "/enterprise/en/car-rental/locations/canada.html");
+                        HertzScraper.extractLocationLinks(driver, driver.getTitle(), rows, Integer.MAX_VALUE);
+                        latencies.add((System.nanoTime() - pageStart) / 1_000_000);
+
+                        // One location detail page per round, through the multi-page crawl's page extraction
+                        pageStart = System.nanoTime();
+                        String locationUrl = base + "/enterprise/en/car-rental/locations/canada/location-" + ((page - 1) % size) + ".html";
+                        driver.get(locationUrl);
+                        HertzScraper.crawlPage(driver, wait, -1, locationUrl, "Location Page", rows);
+                        latencies.add((System.nanoTime() - pageStart) / 1_000_000);
+
+                        rowCount.addAndGet(rows.size());
+                    }
+                    Object heap = ((JavascriptExecutor) driver).executeScript(
+                        "return window.performance.memory ? window.performance.memory.usedJSHeapSize : 0;");
+                    browserHeap.addAndGet(((Number) heap).longValue());
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            seconds = (System.nanoTime() - start) / 1e9;
+            jvmHeap = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+        } finally {
+            // A failed worker must not leave threads or Chrome processes behind for the next scenario
+            workers.shutdownNow();
+            for (WebDriver driver : drivers) {
+                try {
+                    driver.quit();
+                } catch (Exception e) {
+                    System.err.println("Error quitting driver: " + e.getMessage());
+                }
+            }
+        }
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return size + "," + concurrency + "," + sorted.size() + "," + rowCount.get() + ","
+            + String.format("%.1f", rowCount.get() / seconds) + ","
+            + percentile(sorted, 0.50) + "," + percentile(sorted, 0.95) + "," + percentile(sorted, 1.0) + ","
+            + (jvmHeap / (1024 * 1024)) + "," + (browserHeap.get() / concurrency / (1024 * 1024));
+    }
+
+    private static WebDriver createHeadlessDriver() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--enable-precise-memory-info");
+        return new ChromeDriver(options);
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    private static int[] parseList(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+}
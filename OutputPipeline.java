@@ -0,0 +1,264 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Output stage between the extractors and the files / stores they feed. Extracted records are handed to
+ * every registered sink through its own bounded queue and written on that sink's own thread in batches,
+ * so slow disk I/O never holds up the browser-driving threads.
+ *
+ * Sinks are chosen with -Doutput.sinks=csv,ndjson,store (default csv,store); see OutputSinks.
+ * Per-sink queue capacity is -Doutput.queueSize (default 10000), batch size -Doutput.batchSize (default 256).
+ *
+ * A dataset is written by one run at a time: a run that opens a dataset another run still has open writes
+ * to its own NAME_runN dataset instead of truncating the other run's output.
+ */
+public class OutputPipeline {
+
+    public static final OutputPipeline SHARED = configured();
+
+    /**
+     * One extracted record. A dataset's first row is its header, as in the CSV files.
+     * Vehicle listing records also carry the parsed listing for the store sink.
+     */
+    public static final class Record {
+        enum Kind { BEGIN, ROW, FLUSH }
+
+        final Kind kind;
+        public final String dataset;
+        public final String[] header;
+        public final String[] values;
+        public final VehicleListing listing;
+        public final String priceText;
+        final CountDownLatch flushed;
+
+        Record(Kind kind, String dataset, String[] header, String[] values, VehicleListing listing, String priceText, CountDownLatch flushed) {
+            this.kind = kind;
+            this.dataset = dataset;
+            this.header = header;
+            this.values = values;
+            this.listing = listing;
+            this.priceText = priceText;
+            this.flushed = flushed;
+        }
+    }
+
+    /**
+     * A destination for records. Called only from the sink's own writer thread.
+     */
+    public interface Sink {
+        String name();
+
+        /** Start a dataset from scratch (e.g. truncate its file) */
+        void begin(String dataset) throws IOException;
+
+        void write(List<Record> batch) throws IOException;
+
+        /** Make everything written so far durable, according to the sink's fsync policy */
+        void sync(boolean force) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static final Record POISON = new Record(Record.Kind.FLUSH, null, null, null, null, null, null);
+
+    private final List<SinkWriter> writers = new CopyOnWriteArrayList<>();
+    private final Set<String> openDatasets = ConcurrentHashMap.newKeySet();
+    private final int queueSize;
+    private final int batchSize;
+
+    public OutputPipeline(int queueSize, int batchSize) {
+        this.queueSize = queueSize;
+        this.batchSize = batchSize;
+    }
+
+    private static OutputPipeline configured() {
+        OutputPipeline pipeline = new OutputPipeline(Integer.getInteger("output.queueSize", 10_000), Integer.getInteger("output.batchSize", 256));
+        for (String name : System.getProperty("output.sinks", "csv,store").split(",")) {
+            Sink sink = OutputSinks.byName(name.trim());
+            if (sink != null) {
+                pipeline.addSink(sink);
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(pipeline::close, "output-pipeline-shutdown"));
+        return pipeline;
+    }
+
+    public void addSink(Sink sink) {
+        SinkWriter writer = new SinkWriter(sink, new ArrayBlockingQueue<>(queueSize), batchSize);
+        writers.add(writer);
+        writer.start();
+    }
+
+    /**
+     * Rows of a dataset: every add() is also published to the sinks. Starts the dataset afresh, under a
+     * per-run name while another run has it open; close the sink when the run ends.
+     */
+    public RowSink dataset(String dataset) {
+        String name = dataset;
+        for (int run = 2; !openDatasets.add(name); run++) {
+            name = dataset + "_run" + run;
+        }
+        if (!name.equals(dataset)) {
+            ScraperLog.warn("dataset is open in another run, writing this run separately", "dataset", dataset, "as", name);
+        }
+        String published = name;
+        publish(new Record(Record.Kind.BEGIN, published, null, null, null, null, null));
+        return new RowSink(published, row -> publish(new Record(Record.Kind.ROW, published, null, row, null, null, null)),
+                () -> openDatasets.remove(published));
+    }
+
+    /**
+     * Publish a complete snapshot of rows as its own dataset (header first). Snapshots are published one at
+     * a time, so two runs publishing the same name leave one complete snapshot, not a mix.
+     */
+    public synchronized void publishAll(String dataset, List<String[]> rows) {
+        publish(new Record(Record.Kind.BEGIN, dataset, null, null, null, null, null));
+        for (String[] row : rows) {
+            publish(new Record(Record.Kind.ROW, dataset, null, row.clone(), null, null, null));
+        }
+    }
+
+    /**
+     * Publish a parsed vehicle listing (dataset "vehicle_listings"); ignored without a parsed price
+     */
+    public void publishListing(VehicleListing listing, String priceText) {
+        if (listing == null || listing.price == null) {
+            return;
+        }
+        publish(new Record(Record.Kind.ROW, OutputSinks.LISTINGS, OutputSinks.LISTING_HEADER,
+                OutputSinks.listingValues(listing, priceText), listing, priceText, null));
+    }
+
+    /**
+     * Wait until every sink has written and synced everything published so far
+     */
+    public void flush() {
+        CountDownLatch flushed = new CountDownLatch(writers.size());
+        publish(new Record(Record.Kind.FLUSH, null, null, null, null, null, flushed));
+        try {
+            if (!flushed.await(60, TimeUnit.SECONDS)) {
+                ScraperLog.warn("output flush timed out, some sinks are still writing", "sinks", writers.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void close() {
+        flush();
+        for (SinkWriter writer : writers) {
+            writer.stopAfterQueue();
+        }
+        writers.clear();
+    }
+
+    private void publish(Record record) {
+        for (SinkWriter writer : writers) {
+            try {
+                // Bounded: a sink that falls far behind slows the producer instead of growing the heap
+                writer.queue.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static final class SinkWriter extends Thread {
+        private final Sink sink;
+        private final BlockingQueue<Record> queue;
+        private final int batchSize;
+
+        SinkWriter(Sink sink, BlockingQueue<Record> queue, int batchSize) {
+            super("output-" + sink.name());
+            setDaemon(true);
+            this.sink = sink;
+            this.queue = queue;
+            this.batchSize = batchSize;
+        }
+
+        void stopAfterQueue() {
+            try {
+                queue.put(POISON);
+                join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Record> drained = new ArrayList<>(batchSize);
+            List<Record> rows = new ArrayList<>(batchSize);
+            int next = 0;
+            try {
+                while (true) {
+                    drained.clear();
+                    drained.add(queue.take());
+                    queue.drainTo(drained, batchSize - 1);
+                    for (next = 0; next < drained.size(); next++) {
+                        Record record = drained.get(next);
+                        if (record == POISON) {
+                            writeRows(rows);
+                            sink.sync(true);
+                            sink.close();
+                            return;
+                        }
+                        if (record.kind == Record.Kind.ROW) {
+                            rows.add(record);
+                            continue;
+                        }
+                        writeRows(rows);
+                        if (record.kind == Record.Kind.BEGIN) {
+                            sink.begin(record.dataset);
+                        } else {
+                            sink.sync(true);
+                            record.flushed.countDown();
+                        }
+                    }
+                    writeRows(rows);
+                    sink.sync(false);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                ScraperLog.error("output sink failed", "sink", sink.name(), "error", e.getMessage());
+                // Release flushes already taken off the queue, then keep draining so producers
+                // and flush() never block on a dead sink
+                for (int i = next; i < drained.size(); i++) {
+                    if (drained.get(i).flushed != null) {
+                        drained.get(i).flushed.countDown();
+                    }
+                }
+                while (true) {
+                    try {
+                        Record record = queue.take();
+                        if (record == POISON) {
+                            return;
+                        }
+                        if (record.flushed != null) {
+                            record.flushed.countDown();
+                        }
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void writeRows(List<Record> rows) throws IOException {
+            if (!rows.isEmpty()) {
+                sink.write(rows);
+                rows.clear();
+            }
+        }
+    }
+}
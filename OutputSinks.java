@@ -0,0 +1,258 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The built-in OutputPipeline sinks:
+ *   csv     DATASET.csv, same layout as the files the scrapers always wrote
+ *   ndjson  DATASET.ndjson, one JSON object per row keyed by the dataset's header
+ *   store   parsed vehicle listings into LatestPriceCache, PriceStats and VehicleLocationIndex
+ * Files go to -Doutput.dir (default the working directory). Durability follows -Doutput.fsync:
+ * "never" (OS decides), "batch" (fsync after every batch) or "interval" (at most every
+ * -Doutput.fsyncMillis, default 1000, and on flush; the default).
+ */
+public final class OutputSinks {
+
+    static final String LISTINGS = "vehicle_listings";
+    static final String[] LISTING_HEADER = {
+        "Site", "Location", "Title", "Year", "Make", "Model", "Body Type", "Transmission",
+        "Currency", "Amount Minor", "Period", "Per Day Minor", "Price Text"
+    };
+
+    enum FsyncPolicy { NEVER, BATCH, INTERVAL }
+
+    private OutputSinks() {
+    }
+
+    static OutputPipeline.Sink byName(String name) {
+        File directory = new File(System.getProperty("output.dir", "."));
+        FsyncPolicy policy = fsyncPolicy(System.getProperty("output.fsync", "interval"));
+        long fsyncMillis = Long.getLong("output.fsyncMillis", 1000L);
+        switch (name) {
+            case "csv": return new CsvSink(directory, policy, fsyncMillis);
+            case "ndjson": return new NdjsonSink(directory, policy, fsyncMillis);
+            case "store": return new StoreSink();
+            case "": return null;
+            default:
+                ScraperLog.warn("unknown output sink, ignored", "sink", name);
+                return null;
+        }
+    }
+
+    /**
+     * Policy named by -Doutput.fsync; a typo falls back to interval instead of failing every run that outputs rows
+     */
+    static FsyncPolicy fsyncPolicy(String name) {
+        try {
+            return FsyncPolicy.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            ScraperLog.warn("unknown output.fsync policy, using interval", "policy", name);
+            return FsyncPolicy.INTERVAL;
+        }
+    }
+
+    static String[] listingValues(VehicleListing listing, String priceText) {
+        return new String[]{
+            listing.site, RowText.label(listing.location), RowText.stripCommas(listing.title),
+            String.valueOf(listing.year), listing.make, listing.model, listing.bodyType, listing.transmission,
+            listing.price.currency, String.valueOf(listing.price.amountMinor), listing.price.period.name().toLowerCase(),
+            String.valueOf(listing.price.perDayMinor()), priceText == null ? "" : RowText.stripCommas(priceText)
+        };
+    }
+
+    /**
+     * Shared file handling: one open file per dataset, truncated on begin, appended otherwise
+     */
+    abstract static class FileSink implements OutputPipeline.Sink {
+        private final File directory;
+        private final String extension;
+        private final FsyncPolicy policy;
+        private final long fsyncMillis;
+        private final Map<String, FileOutputStream> streams = new HashMap<>();
+        private final Map<String, Writer> writers = new HashMap<>();
+        private long lastFsync = System.currentTimeMillis();
+
+        FileSink(File directory, String extension, FsyncPolicy policy, long fsyncMillis) {
+            this.directory = directory;
+            this.extension = extension;
+            this.policy = policy;
+            this.fsyncMillis = fsyncMillis;
+            directory.mkdirs();
+        }
+
+        @Override
+        public void begin(String dataset) throws IOException {
+            closeDataset(dataset);
+            open(dataset, false);
+        }
+
+        @Override
+        public void write(List<OutputPipeline.Record> batch) throws IOException {
+            for (OutputPipeline.Record record : batch) {
+                Writer writer = writers.get(record.dataset);
+                if (writer == null) {
+                    // Never begun in this process (e.g. vehicle_listings): keep appending to the existing file
+                    boolean fresh = !file(record.dataset).exists() || file(record.dataset).length() == 0;
+                    writer = open(record.dataset, true);
+                    if (fresh && record.header != null) {
+                        writeHeader(writer, record.dataset, record.header);
+                    }
+                }
+                writeRecord(writer, record);
+            }
+        }
+
+        @Override
+        public void sync(boolean force) throws IOException {
+            for (Writer writer : writers.values()) {
+                writer.flush();
+            }
+            long now = System.currentTimeMillis();
+            boolean due = policy == FsyncPolicy.BATCH
+                    || (policy == FsyncPolicy.INTERVAL && (force || now - lastFsync >= fsyncMillis));
+            if (due) {
+                for (FileOutputStream stream : streams.values()) {
+                    stream.getChannel().force(false);
+                }
+                lastFsync = now;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (String dataset : new java.util.ArrayList<>(writers.keySet())) {
+                closeDataset(dataset);
+            }
+        }
+
+        abstract void writeHeader(Writer writer, String dataset, String[] header) throws IOException;
+
+        abstract void writeRecord(Writer writer, OutputPipeline.Record record) throws IOException;
+
+        private File file(String dataset) {
+            return new File(directory, dataset + extension);
+        }
+
+        private Writer open(String dataset, boolean append) throws IOException {
+            FileOutputStream stream = new FileOutputStream(file(dataset), append);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 64 * 1024);
+            streams.put(dataset, stream);
+            writers.put(dataset, writer);
+            return writer;
+        }
+
+        private void closeDataset(String dataset) throws IOException {
+            Writer writer = writers.remove(dataset);
+            FileOutputStream stream = streams.remove(dataset);
+            if (writer != null) {
+                writer.flush();
+                if (policy != FsyncPolicy.NEVER) {
+                    stream.getChannel().force(false);
+                }
+                writer.close();
+            }
+        }
+    }
+
+    static final class CsvSink extends FileSink {
+        CsvSink(File directory, FsyncPolicy policy, long fsyncMillis) {
+            super(directory, ".csv", policy, fsyncMillis);
+        }
+
+        @Override
+        public String name() {
+            return "csv";
+        }
+
+        @Override
+        void writeHeader(Writer writer, String dataset, String[] header) throws IOException {
+            RowText.writeCsvLine(writer, header);
+        }
+
+        @Override
+        void writeRecord(Writer writer, OutputPipeline.Record record) throws IOException {
+            RowText.writeCsvLine(writer, record.values);
+        }
+    }
+
+    static final class NdjsonSink extends FileSink {
+        // Datasets without an explicit header use their first row as the header, as the CSVs do
+        private final Map<String, String[]> headers = new HashMap<>();
+        private final StringBuilder line = new StringBuilder();
+
+        NdjsonSink(File directory, FsyncPolicy policy, long fsyncMillis) {
+            super(directory, ".ndjson", policy, fsyncMillis);
+        }
+
+        @Override
+        public String name() {
+            return "ndjson";
+        }
+
+        @Override
+        public void begin(String dataset) throws IOException {
+            headers.remove(dataset);
+            super.begin(dataset);
+        }
+
+        @Override
+        void writeHeader(Writer writer, String dataset, String[] header) {
+            headers.put(dataset, header);
+        }
+
+        @Override
+        void writeRecord(Writer writer, OutputPipeline.Record record) throws IOException {
+            String[] header = record.header != null ? record.header : headers.get(record.dataset);
+            if (header == null) {
+                headers.put(record.dataset, record.values);
+                return;
+            }
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("dataset", record.dataset);
+            for (int i = 0; i < record.values.length; i++) {
+                json.put(i < header.length ? header[i] : "Column " + (i + 1), record.values[i]);
+            }
+            line.setLength(0);
+            Json.write(json, line);
+            writer.append(line).append('\n');
+        }
+    }
+
+    static final class StoreSink implements OutputPipeline.Sink {
+        @Override
+        public String name() {
+            return "store";
+        }
+
+        @Override
+        public void begin(String dataset) {
+        }
+
+        @Override
+        public void write(List<OutputPipeline.Record> batch) {
+            for (OutputPipeline.Record record : batch) {
+                if (record.listing != null) {
+                    LatestPriceCache.SHARED.put(record.listing, record.priceText);
+                    PriceStats.SHARED.record(record.listing);
+                    VehicleLocationIndex.SHARED.put(record.listing);
+                }
+            }
+        }
+
+        @Override
+        public void sync(boolean force) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,211 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP/JSON read API over LatestPriceCache, so downstream services can ask for current prices
+ * without parsing the CSV files:
+ *   GET /prices?site=swiftride&location=...&make=honda&model=fit&q=civic&limit=50
+ *   GET /price?site=enterprise&location=Toronto Pearson International Airport&title=...
+ *   GET /nearest?lat=43.65&lon=-79.38&make=honda&maxWeek=450&limit=10
+ *   GET /health
+ * Binds to loopback only. Enabled with -Dapi.port=8085 (the crawl daemon starts it by default).
+ */
+public class PriceApiServer {
+
+    private static HttpServer server;
+
+    /**
+     * Start the API when -Dapi.port is set (or defaultPort is non-zero); safe to call more than once
+     */
+    public static synchronized void startIfEnabled(int defaultPort) {
+        int port = Integer.getInteger("api.port", defaultPort);
+        if (port <= 0 || server != null) {
+            return;
+        }
+        try {
+            server = start(port, LatestPriceCache.SHARED);
+        } catch (IOException e) {
+            ScraperLog.warn("could not start price API", "port", port, "error", e.getMessage());
+        }
+    }
+
+    public static HttpServer start(int port, LatestPriceCache cache) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/prices", exchange -> {
+            Map<String, String> query = queryParams(exchange);
+            if (query == null) {
+                respondMalformedQuery(exchange);
+                return;
+            }
+            int limit = parseLimit(query.get("limit"));
+            List<Object> results = new ArrayList<>();
+            for (LatestPriceCache.Entry entry : cache.query(query.get("site"), query.get("location"),
+                    query.get("make"), query.get("model"), query.get("q"), limit)) {
+                results.add(toJson(entry));
+            }
+            respond(exchange, 200, results);
+        });
+        http.createContext("/price", exchange -> {
+            Map<String, String> query = queryParams(exchange);
+            if (query == null) {
+                respondMalformedQuery(exchange);
+                return;
+            }
+            LatestPriceCache.Entry entry = cache.get(query.get("site"), query.get("location"), query.get("title"));
+            if (entry == null) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("error", "not found");
+                respond(exchange, 404, error);
+            } else {
+                respond(exchange, 200, toJson(entry));
+            }
+        });
+        http.createContext("/nearest", exchange -> {
+            Map<String, String> query = queryParams(exchange);
+            if (query == null) {
+                respondMalformedQuery(exchange);
+                return;
+            }
+            double latitude;
+            double longitude;
+            try {
+                latitude = Double.parseDouble(query.get("lat"));
+                longitude = Double.parseDouble(query.get("lon"));
+            } catch (NullPointerException | NumberFormatException e) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("error", "lat and lon are required");
+                respond(exchange, 400, error);
+                return;
+            }
+            // parseDouble accepts NaN and Infinity, which would make every distance NaN
+            if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("error", "lat must be within -90..90 and lon within -180..180");
+                respond(exchange, 400, error);
+                return;
+            }
+            long maxPerWeekMinor;
+            try {
+                maxPerWeekMinor = query.get("maxWeek") == null ? 0 : Math.round(Double.parseDouble(query.get("maxWeek")) * 100);
+            } catch (NumberFormatException e) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("error", "maxWeek must be a number");
+                respond(exchange, 400, error);
+                return;
+            }
+            List<Object> results = new ArrayList<>();
+            for (VehicleLocationIndex.Hit hit : VehicleLocationIndex.SHARED.nearest(latitude, longitude, query.get("make"),
+                    maxPerWeekMinor, Math.min(parseLimit(query.get("limit")), 1000))) {
+                Map<String, Object> json = toJson(new LatestPriceCache.Entry(hit.listing.key(), hit.listing, null, System.currentTimeMillis()));
+                json.remove("priceText");
+                json.remove("updatedAt");
+                json.put("latitude", hit.latitude);
+                json.put("longitude", hit.longitude);
+                json.put("distanceKm", Math.round(hit.distanceKm * 10) / 10.0);
+                results.add(json);
+            }
+            respond(exchange, 200, results);
+        });
+        http.createContext("/health", exchange -> {
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("status", "ok");
+            health.put("entries", cache.size());
+            respond(exchange, 200, health);
+        });
+        http.setExecutor(Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "price-api");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        http.start();
+        System.out.println("Price API listening on http://localhost:" + http.getAddress().getPort() + "/prices");
+        return http;
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    static Map<String, Object> toJson(LatestPriceCache.Entry entry) {
+        VehicleListing listing = entry.listing;
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("site", listing.site);
+        json.put("location", listing.location);
+        json.put("title", listing.title);
+        json.put("year", listing.year);
+        json.put("make", listing.make);
+        json.put("model", listing.model);
+        json.put("bodyType", listing.bodyType);
+        json.put("transmission", listing.transmission);
+        json.put("currency", listing.price.currency);
+        json.put("amountMinor", listing.price.amountMinor);
+        json.put("period", listing.price.period.name().toLowerCase());
+        json.put("perDayMinor", listing.price.perDayMinor());
+        json.put("perWeekMinor", listing.price.perWeekMinor());
+        json.put("priceText", entry.priceText);
+        json.put("updatedAt", Instant.ofEpochMilli(entry.updatedAtMillis).toString());
+        return json;
+    }
+
+    private static int parseLimit(String value) {
+        try {
+            return value == null ? 100 : Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return 100;
+        }
+    }
+
+    /**
+     * Decoded query parameters, or null when the query has a malformed %-escape
+     */
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                try {
+                    params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                } catch (IllegalArgumentException e) {
+                    return null; // broken %-escape
+                }
+            }
+        }
+        return params;
+    }
+
+    private static void respondMalformedQuery(HttpExchange exchange) throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", "malformed query string");
+        respond(exchange, 400, error);
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+import java.util.List;
+
+/**
+ * Price engine shared by both scrapers.
+ * Turns the free-text prices shown by Enterprise ("$ 45.99", price-detail messages)
+ * and SwiftRide ("$449 /week") into integer minor units + currency + billing period,
+ * so prices can be compared and aggregated numerically instead of as strings.
+ */
+public final class PriceParser {
+
+    /**
+     * Billing period of a quoted price, with its length in hours for normalization
+     */
+    public enum BillingPeriod {
+        HOUR(1), DAY(24), WEEK(24 * 7), MONTH(24 * 30);
+
+        final int hours;
+
+        BillingPeriod(int hours) {
+            this.hours = hours;
+        }
+    }
+
+    /**
+     * A parsed price: amount in minor units (cents), ISO currency code and billing period
+     */
+    public static final class Price {
+        public final long amountMinor;
+        public final String currency;
+        public final BillingPeriod period;
+
+        Price(long amountMinor, String currency, BillingPeriod period) {
+            this.amountMinor = amountMinor;
+            this.currency = currency;
+            this.period = period;
+        }
+
+        public long perDayMinor() {
+            return normalize(amountMinor, period, BillingPeriod.DAY);
+        }
+
+        public long perWeekMinor() {
+            return normalize(amountMinor, period, BillingPeriod.WEEK);
+        }
+
+        @Override
+        public String toString() {
+            return format(currency, amountMinor) + " /" + period.name().toLowerCase();
+        }
+    }
+
+    // Fixed currency table so parsing never allocates currency strings
+    private static final String[] CURRENCIES = {"CAD", "USD", "EUR", "GBP"};
+    private static final int CAD = 0, USD = 1, EUR = 2, GBP = 3, DEFAULT_CURRENCY = -1;
+
+    /**
+     * Mutable parse result, reused across rows by the batch path
+     */
+    private static final class ParseState {
+        long amountMinor;
+        int currency;
+        BillingPeriod period;
+    }
+
+    private PriceParser() {
+    }
+
+    /**
+     * Parse a free-text price such as "$449 /week", "CA$ 45.99 per day" or "US$1,299.50/mo".
+     * Returns null when the text holds no amount (e.g. "Call for availability").
+     */
+    public static Price parse(CharSequence text, String defaultCurrency, BillingPeriod defaultPeriod) {
+        ParseState state = new ParseState();
+        if (!parseInto(text, defaultPeriod, state)) {
+            return null;
+        }
+        return new Price(state.amountMinor, currencyOf(state.currency, defaultCurrency), state.period);
+    }
+
+    /**
+     * Parse Enterprise's split price tag (rs-price-tag__symbol / __unit / __fraction spans)
+     * without first concatenating the parts into one string.
+     */
+    public static Price parseEnterprise(String symbol, String unit, String fraction) {
+        long whole = readDigits(unit, 0, unit.length());
+        if (whole < 0) {
+            return null;
+        }
+        long cents = 0;
+        int digits = 0;
+        for (int i = 0; i < fraction.length() && digits < 2; i++) {
+            char c = fraction.charAt(i);
+            if (c >= '0' && c <= '9') {
+                cents = cents * 10 + (c - '0');
+                digits++;
+            }
+        }
+        if (digits == 1) {
+            cents *= 10;
+        }
+        int currency = detectCurrency(symbol, 0, symbol.length());
+        return new Price(whole * 100 + cents, currencyOf(currency, "CAD"), BillingPeriod.DAY);
+    }
+
+    /**
+     * Normalize a whole batch of price texts to per-day and per-week minor units.
+     * Unparseable entries are written as -1. Only one scratch object is allocated per call.
+     *
+     * @return number of entries that parsed successfully
+     */
+    public static int normalizeBatch(List<? extends CharSequence> texts, BillingPeriod defaultPeriod,
+                                     long[] perDayOut, long[] perWeekOut) {
+        ParseState state = new ParseState();
+        int parsed = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            if (parseInto(texts.get(i), defaultPeriod, state)) {
+                perDayOut[i] = normalize(state.amountMinor, state.period, BillingPeriod.DAY);
+                perWeekOut[i] = normalize(state.amountMinor, state.period, BillingPeriod.WEEK);
+                parsed++;
+            } else {
+                perDayOut[i] = -1;
+                perWeekOut[i] = -1;
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Convert an amount between billing periods, rounding half up to the nearest minor unit
+     */
+    public static long normalize(long amountMinor, BillingPeriod from, BillingPeriod to) {
+        if (from == to) {
+            return amountMinor;
+        }
+        long scaled = amountMinor * to.hours;
+        return (scaled + from.hours / 2) / from.hours;
+    }
+
+    /**
+     * Format minor units as "CAD 45.99"
+     */
+    public static String format(String currency, long amountMinor) {
+        long cents = amountMinor % 100;
+        return currency + " " + (amountMinor / 100) + "." + (cents < 10 ? "0" : "") + cents;
+    }
+
+    // Single pass: currency markers anywhere, first number (, thousands or decimal, . decimals), then a period keyword
+    private static boolean parseInto(CharSequence text, BillingPeriod defaultPeriod, ParseState state) {
+        if (text == null) {
+            return false;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                start = i;
+                break;
+            }
+        }
+        if (start < 0) {
+            return false;
+        }
+
+        long whole = 0;
+        long cents = 0;
+        int centDigits = -1;
+        int end = start;
+        while (end < length) {
+            char c = text.charAt(end);
+            if (c >= '0' && c <= '9') {
+                if (centDigits < 0) {
+                    whole = whole * 10 + (c - '0');
+                } else if (centDigits < 2) {
+                    cents = cents * 10 + (c - '0');
+                    centDigits++;
+                }
+            } else if (c == ',' && centDigits < 0 && end + 1 < length && isDigit(text.charAt(end + 1))) {
+                // "45,99 €": exactly two trailing digits make the comma the decimal separator, otherwise thousands
+                if (end + 2 < length && isDigit(text.charAt(end + 2)) && (end + 3 >= length || !isDigit(text.charAt(end + 3)))) {
+                    centDigits = 0;
+                }
+            } else if (c == '.' && centDigits < 0 && end + 1 < length && isDigit(text.charAt(end + 1))) {
+                centDigits = 0;
+            } else {
+                break;
+            }
+            end++;
+        }
+        if (centDigits == 1) {
+            cents *= 10;
+        }
+
+        state.amountMinor = whole * 100 + cents;
+        state.currency = detectCurrency(text, 0, length);
+        state.period = detectPeriod(text, end, length, defaultPeriod);
+        return true;
+    }
+
+    private static int detectCurrency(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '€') {
+                return EUR;
+            }
+            if (c == '£') {
+                return GBP;
+            }
+            if (c == '$') {
+                if (i > 0 && (text.charAt(i - 1) == 'C' || regionMatches(text, i - 2, "CA"))) {
+                    return CAD;
+                }
+                if (regionMatches(text, i - 2, "US")) {
+                    return USD;
+                }
+            }
+            if (c >= 'A' && c <= 'Z' && !isLetter(text, i - 1)) {
+                for (int k = 0; k < CURRENCIES.length; k++) {
+                    String code = CURRENCIES[k];
+                    if (i + 3 <= to && text.charAt(i) == code.charAt(0) && text.charAt(i + 1) == code.charAt(1)
+                            && text.charAt(i + 2) == code.charAt(2) && !isLetter(text, i + 3)) {
+                        return k;
+                    }
+                }
+            }
+        }
+        return DEFAULT_CURRENCY;
+    }
+
+    private static BillingPeriod detectPeriod(CharSequence text, int from, int to, BillingPeriod defaultPeriod) {
+        for (int i = from; i < to; i++) {
+            if (isLetter(text, i - 1)) {
+                continue; // keywords must start a word
+            }
+            char c = Character.toLowerCase(text.charAt(i));
+            if (c == 'd' && (regionMatches(text, i, "day") || wordAt(text, i, "dy"))) {
+                return BillingPeriod.DAY;
+            }
+            if (c == 'w' && (regionMatches(text, i, "week") || wordAt(text, i, "wk"))) {
+                return BillingPeriod.WEEK;
+            }
+            if (c == 'm' && (regionMatches(text, i, "month") || wordAt(text, i, "mo"))) {
+                return BillingPeriod.MONTH;
+            }
+            if (c == 'h' && (regionMatches(text, i, "hour") || wordAt(text, i, "hr"))) {
+                return BillingPeriod.HOUR;
+            }
+        }
+        return defaultPeriod;
+    }
+
+    // Case-insensitive match of an ASCII keyword at the given offset
+    private static boolean regionMatches(CharSequence text, int offset, String keyword) {
+        if (offset < 0 || offset + keyword.length() > text.length()) {
+            return false;
+        }
+        for (int k = 0; k < keyword.length(); k++) {
+            if (Character.toLowerCase(text.charAt(offset + k)) != Character.toLowerCase(keyword.charAt(k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Short abbreviations ("wk", "mo") only count as whole words
+    private static boolean wordAt(CharSequence text, int offset, String keyword) {
+        return regionMatches(text, offset, keyword) && !isLetter(text, offset + keyword.length());
+    }
+
+    private static boolean isLetter(CharSequence text, int index) {
+        return index >= 0 && index < text.length() && Character.isLetter(text.charAt(index));
+    }
+
+    private static long readDigits(CharSequence text, int from, int to) {
+        long value = 0;
+        boolean any = false;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                value = value * 10 + (c - '0');
+                any = true;
+            } else if (c != ',' && c != ' ') {
+                break;
+            }
+        }
+        return any ? value : -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String currencyOf(int currency, String defaultCurrency) {
+        return currency == DEFAULT_CURRENCY ? defaultCurrency : CURRENCIES[currency];
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running price statistics, updated as each vehicle row is extracted instead of rescanning the CSVs afterwards.
+ * Prices (per-day, minor units) are grouped by site | location | vehicle class | date; each group keeps
+ * count/min/max/sum and a fixed-size quantile sketch, so memory per group does not grow with the row count.
+ * A listing whose per-day price falls below the last price seen for it in this process is reported as a price drop.
+ */
+public class PriceStats {
+
+    public static final PriceStats SHARED = new PriceStats();
+
+    /**
+     * Log-bucketed quantile sketch: values are mapped to buckets of 2% relative width, so every quantile
+     * is within 1% of the true value. Covers 1 minor unit up to 10^9 (e.g. 10 million dollars) in about 1000 ints.
+     */
+    static final class QuantileSketch {
+        private static final double RELATIVE_ACCURACY = 0.01;
+        private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+        private static final double LOG_GAMMA = Math.log(GAMMA);
+        private static final int BUCKETS = (int) Math.ceil(Math.log(1e9) / LOG_GAMMA) + 1;
+
+        private final int[] counts = new int[BUCKETS];
+        private long total;
+
+        void add(long value) {
+            counts[bucket(value)]++;
+            total++;
+        }
+
+        long quantile(double q) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) {
+                    // Midpoint of the bucket (GAMMA^(i-1), GAMMA^i]
+                    return Math.round(2 * Math.pow(GAMMA, i) / (GAMMA + 1));
+                }
+            }
+            return 0;
+        }
+
+        private static int bucket(long value) {
+            if (value <= 1) {
+                return 0;
+            }
+            return Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(value) / LOG_GAMMA));
+        }
+    }
+
+    /**
+     * Statistics for one site | location | vehicle class | date group
+     */
+    public static final class Group {
+        public final String site;
+        public final String location;
+        public final String vehicleClass;
+        public final LocalDate date;
+        public final String currency;
+        private final QuantileSketch sketch = new QuantileSketch();
+        private long count;
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+        private long sum;
+
+        Group(String site, String location, String vehicleClass, LocalDate date, String currency) {
+            this.site = site;
+            this.location = location;
+            this.vehicleClass = vehicleClass;
+            this.date = date;
+            this.currency = currency;
+        }
+
+        synchronized void add(long perDayMinor) {
+            count++;
+            sum += perDayMinor;
+            min = Math.min(min, perDayMinor);
+            max = Math.max(max, perDayMinor);
+            sketch.add(perDayMinor);
+        }
+
+        public synchronized long count() {
+            return count;
+        }
+
+        public synchronized long min() {
+            return count == 0 ? 0 : min;
+        }
+
+        public synchronized long max() {
+            return count == 0 ? 0 : max;
+        }
+
+        public synchronized long mean() {
+            return count == 0 ? 0 : Math.round((double) sum / count);
+        }
+
+        public synchronized long percentile(double q) {
+            return sketch.quantile(q);
+        }
+    }
+
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastPerDay = new ConcurrentHashMap<>();
+
+    /**
+     * Add one extracted listing; listings without a parsed price are ignored
+     */
+    public void record(VehicleListing listing) {
+        if (listing == null || listing.price == null) {
+            return;
+        }
+        long perDay = listing.price.perDayMinor();
+        LocalDate today = LocalDate.now();
+        String vehicleClass = listing.bodyType.isEmpty() ? "other" : listing.bodyType;
+        String groupKey = listing.site + "|" + listing.location + "|" + vehicleClass + "|" + today + "|" + listing.price.currency;
+        groups.computeIfAbsent(groupKey, k -> new Group(listing.site, listing.location, vehicleClass, today, listing.price.currency))
+              .add(perDay);
+
+        Long previous = lastPerDay.put(listing.key(), perDay);
+        if (previous != null && perDay < previous) {
+            ScraperLog.info("price drop", "site", listing.site, "location", listing.location, "vehicle", listing.title,
+                    "previousPerDay", PriceParser.format(listing.price.currency, previous),
+                    "perDay", PriceParser.format(listing.price.currency, perDay));
+            ScraperEvents.priceDrop(listing, previous, perDay);
+        }
+    }
+
+    /**
+     * Groups of one site (all sites when null), ordered by location, class and date
+     */
+    public List<Group> groups(String site) {
+        List<Group> result = new ArrayList<>();
+        for (Group group : groups.values()) {
+            if (site == null || site.equals(group.site)) {
+                result.add(group);
+            }
+        }
+        result.sort((a, b) -> {
+            int c = a.location.compareTo(b.location);
+            if (c == 0) {
+                c = a.vehicleClass.compareTo(b.vehicleClass);
+            }
+            return c != 0 ? c : a.date.compareTo(b.date);
+        });
+        return result;
+    }
+
+    /**
+     * Print the per-group statistics of a site and write them to price_stats_<site>.csv
+     */
+    public void printSummary(String site) {
+        List<Group> siteGroups = groups(site);
+        ScraperLog.flush(); // don't interleave the table with log lines still being written
+        System.out.println("\n=== PRICE STATISTICS (" + site + ", per day) ===");
+        if (siteGroups.isEmpty()) {
+            System.out.println("No priced vehicles extracted");
+            return;
+        }
+        String fileName = "price_stats_" + site + ".csv";
+        try (PrintWriter writer = new PrintWriter(new FileWriter(fileName))) {
+            writer.println("Site,Location,Vehicle Class,Date,Currency,Count,Min,Mean,P50,P90,P99,Max");
+            for (Group group : siteGroups) {
+                System.out.println(group.location + " | " + group.vehicleClass + " | " + group.date
+                        + " | n=" + group.count()
+                        + " min " + PriceParser.format(group.currency, group.min())
+                        + " mean " + PriceParser.format(group.currency, group.mean())
+                        + " p50 " + PriceParser.format(group.currency, group.percentile(0.5))
+                        + " p90 " + PriceParser.format(group.currency, group.percentile(0.9))
+                        + " max " + PriceParser.format(group.currency, group.max()));
+                writer.println(String.join(",", group.site, group.location.replace(",", ""), group.vehicleClass,
+                        group.date.toString(), group.currency, String.valueOf(group.count()),
+                        String.valueOf(group.min()), String.valueOf(group.mean()), String.valueOf(group.percentile(0.5)),
+                        String.valueOf(group.percentile(0.9)), String.valueOf(group.percentile(0.99)), String.valueOf(group.max())));
+            }
+            System.out.println("Price statistics saved to " + fileName);
+        } catch (IOException e) {
+            System.err.println("Error writing to CSV file: " + e.getMessage());
+        }
+    }
+}
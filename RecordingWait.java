@@ -0,0 +1,40 @@
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * WebDriverWait that emits a ScraperEvents.WaitEvent for every until() call:
+ * the condition, how long it actually waited and whether it timed out
+ */
+public class RecordingWait extends WebDriverWait {
+
+    private final Duration timeout;
+
+    public RecordingWait(WebDriver driver, Duration timeout) {
+        super(driver, timeout);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public <V> V until(Function<? super WebDriver, V> isTrue) {
+        ScraperEvents.WaitEvent event = new ScraperEvents.WaitEvent();
+        event.begin();
+        boolean timedOut = false;
+        try {
+            return super.until(isTrue);
+        } catch (TimeoutException e) {
+            timedOut = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.condition = String.valueOf(isTrue);
+                event.timeoutMillis = timeout.toMillis();
+                event.timedOut = timedOut;
+                event.commit();
+            }
+        }
+    }
+}
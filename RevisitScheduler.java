@@ -0,0 +1,286 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Change-frequency-aware revisits for the crawl daemon. Every crawl target (the CrawlCoordinator tasks:
+ * result searches and content pages) is revisited at its own pace instead of one fixed cadence per site.
+ *
+ * Each visit hashes the extracted rows; comparing with the previous visit tells whether the target changed.
+ * The change rate is estimated per target with the Poisson estimator for periodic observations,
+ * lambda = -ln((n - X + 0.5) / (n + 0.5)) / mean interval (n comparisons, X changes), and the next visit is
+ * due when the chance of a change reaches -Drevisit.changeChance (default 0.5), clamped to
+ * -Drevisit.minSeconds (default 300) .. -Drevisit.maxSeconds (default 86400).
+ *
+ * At most -Drevisit.budgetPerHour visits (default 60) run in any hour. When more targets are due than the
+ * budget allows, the ones most likely to be stale go first, with price targets weighted by
+ * -Drevisit.priceWeight (default 3). State is kept in -Drevisit.state (default revisit_state.tsv).
+ */
+public class RevisitScheduler {
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    static final class Target {
+        final String id;
+        final String[] task;
+        final boolean priceTarget;
+        int comparisons;
+        int changes;
+        long observedMillis;
+        long lastVisitMillis;
+        String lastHash = "";
+        long nextVisitMillis;
+
+        Target(String id, String[] task) {
+            this.id = id;
+            this.task = task;
+            this.priceTarget = task[0].endsWith("-results") || task[0].endsWith("-search");
+        }
+
+        /**
+         * Estimated changes per hour; NaN until two visits have been compared
+         */
+        double changesPerHour() {
+            if (comparisons == 0 || observedMillis <= 0) {
+                return Double.NaN;
+            }
+            double meanIntervalHours = observedMillis / (double) comparisons / HOUR_MILLIS;
+            return Math.max(0.0, -Math.log((comparisons - changes + 0.5) / (comparisons + 0.5))) / meanIntervalHours;
+        }
+    }
+
+    private final CrawlDaemon daemon;
+    private final File stateFile;
+    private final Map<String, Target> targets = new LinkedHashMap<>();
+    private final Map<String, Target> inFlight = new LinkedHashMap<>();
+    private final Deque<Long> recentVisits = new ArrayDeque<>();
+    private final int maxInFlight;
+    private final int budgetPerHour = Integer.getInteger("revisit.budgetPerHour", 60);
+    private final double changeChance = Double.parseDouble(System.getProperty("revisit.changeChance", "0.5"));
+    private final long minIntervalMillis = Long.getLong("revisit.minSeconds", 300L) * 1000L;
+    private final long maxIntervalMillis = Long.getLong("revisit.maxSeconds", 86_400L) * 1000L;
+    private final double priceWeight = Double.parseDouble(System.getProperty("revisit.priceWeight", "3"));
+
+    public RevisitScheduler(CrawlDaemon daemon, List<String[]> tasks, File stateFile, int maxInFlight) {
+        this.daemon = daemon;
+        this.stateFile = stateFile;
+        this.maxInFlight = maxInFlight;
+        for (String[] task : tasks) {
+            targets.put(task[0], new Target(task[0], Arrays.copyOfRange(task, 1, task.length)));
+        }
+        load();
+    }
+
+    /**
+     * Dispatch due targets, most likely stale first, while the hourly budget and free sessions allow;
+     * called periodically by the daemon
+     */
+    public synchronized void tick() {
+        long now = System.currentTimeMillis();
+        while (!recentVisits.isEmpty() && recentVisits.peekFirst() <= now - HOUR_MILLIS) {
+            recentVisits.pollFirst();
+        }
+        while (inFlight.size() < maxInFlight && recentVisits.size() < budgetPerHour) {
+            Target next = null;
+            double best = -1;
+            for (Target target : targets.values()) {
+                if (target.nextVisitMillis > now || inFlight.containsKey(target.id)) {
+                    continue;
+                }
+                double priority = priority(target, now);
+                if (priority > best) {
+                    best = priority;
+                    next = target;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            dispatch(next);
+            recentVisits.addLast(now);
+        }
+    }
+
+    // Probability the target changed since the last visit, price targets weighted up
+    private double priority(Target target, long now) {
+        double rate = target.changesPerHour();
+        double stale = Double.isNaN(rate) ? 1.0 : 1 - Math.exp(-rate * (now - target.lastVisitMillis) / HOUR_MILLIS);
+        return stale * (target.priceTarget ? priceWeight : 1.0);
+    }
+
+    private void dispatch(Target target) {
+        inFlight.put(target.id, target);
+        // No daemon-side rerun: a failed visit goes back to this scheduler (recordFailure), so a rerun is always
+        // a fresh dispatch that tick() can see, never a second run of a visit already counted as failed
+        boolean queued = daemon.submit("revisit " + target.id, CrawlCoordinator.siteOf(target.task), driver -> {
+            boolean visited = false;
+            try {
+                List<String[]> rows = CrawlCoordinator.run(driver, target.task);
+                // The scrapers log their way through most errors: an empty result or a session that died under
+                // the run is a failed visit, not a page whose content changed to nothing
+                SessionHealth health = SessionHealth.of(driver);
+                if (rows.isEmpty() || health != null && health.isBroken()) {
+                    ScraperLog.warn("revisit produced no usable data, counted as a failure", "target", target.id,
+                            "rows", rows.size(), "sessionBroken", health != null && health.isBroken());
+                    return;
+                }
+                visited = true;
+                recordVisit(target, rows);
+            } finally {
+                if (!visited) {
+                    recordFailure(target);
+                }
+            }
+        }, 0);
+        if (!queued) {
+            recordFailure(target);
+        }
+    }
+
+    synchronized void recordVisit(Target target, List<String[]> rows) {
+        long now = System.currentTimeMillis();
+        String hash = hash(rows);
+        boolean changed = !hash.equals(target.lastHash);
+        if (target.lastVisitMillis > 0) {
+            target.comparisons++;
+            target.observedMillis += now - target.lastVisitMillis;
+            if (changed) {
+                target.changes++;
+            }
+        }
+        target.lastHash = hash;
+        target.lastVisitMillis = now;
+        target.nextVisitMillis = now + interval(target);
+        inFlight.remove(target.id);
+        if (changed) {
+            // Latest content of each target that changed, one dataset per target
+            OutputPipeline.SHARED.publishAll("revisit_" + target.id, rows);
+        }
+        ScraperLog.info("revisited", "target", target.id, "changed", changed,
+                "changesPerHour", String.format(Locale.ROOT, "%.2f", target.changesPerHour()), "nextInMin", (target.nextVisitMillis - now) / 60_000);
+        save();
+    }
+
+    synchronized void recordFailure(Target target) {
+        target.nextVisitMillis = System.currentTimeMillis() + minIntervalMillis;
+        inFlight.remove(target.id);
+    }
+
+    // Time until the chance of a change reaches changeChance: P(change within t) = 1 - e^(-lambda t)
+    private long interval(Target target) {
+        double rate = target.changesPerHour();
+        if (Double.isNaN(rate) || target.comparisons < 2) {
+            return minIntervalMillis; // learn the rate first
+        }
+        if (rate <= 0) {
+            return maxIntervalMillis;
+        }
+        long millis = (long) (-Math.log(1 - changeChance) / rate * HOUR_MILLIS);
+        return Math.max(minIntervalMillis, Math.min(maxIntervalMillis, millis));
+    }
+
+    /**
+     * One line per target: rate estimate, visits and when it is due
+     */
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder();
+        long now = System.currentTimeMillis();
+        report.append("visits in the last hour: ").append(recentVisits.size()).append('/').append(budgetPerHour).append('\n');
+        for (Target target : byVolatility()) {
+            report.append(String.format(Locale.ROOT, "%-40s %s %6.2f changes/h  %d/%d changed  due %s%n", target.id,
+                    target.priceTarget ? "price" : "page ", target.changesPerHour(), target.changes, target.comparisons,
+                    inFlight.containsKey(target.id) ? "running" : target.nextVisitMillis <= now ? "now"
+                            : "in " + (target.nextVisitMillis - now) / 60_000 + " min"));
+        }
+        return report.toString();
+    }
+
+    private static String hash(List<String[]> rows) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String[] row : rows) {
+                for (String value : row) {
+                    digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+                digest.update((byte) '\n');
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void load() {
+        if (!stateFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(stateFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // id, comparisons, changes, observed ms, last visit, last hash, next visit
+                String[] fields = line.split("\t");
+                Target target = fields.length == 7 ? targets.get(fields[0]) : null;
+                if (target == null) {
+                    continue;
+                }
+                target.comparisons = Integer.parseInt(fields[1]);
+                target.changes = Integer.parseInt(fields[2]);
+                target.observedMillis = Long.parseLong(fields[3]);
+                target.lastVisitMillis = Long.parseLong(fields[4]);
+                target.lastHash = fields[5].equals("-") ? "" : fields[5];
+                target.nextVisitMillis = Long.parseLong(fields[6]);
+            }
+        } catch (IOException | NumberFormatException e) {
+            ScraperLog.warn("could not load revisit state", "file", stateFile, "error", e.getMessage());
+        }
+    }
+
+    private void save() {
+        File temp = new File(stateFile.getPath() + ".tmp");
+        try (FileWriter writer = new FileWriter(temp)) {
+            writer.append("# target\tcomparisons\tchanges\tobserved ms\tlast visit\tlast hash\tnext visit\n");
+            for (Target target : targets.values()) {
+                writer.append(target.id).append('\t').append(String.valueOf(target.comparisons)).append('\t')
+                        .append(String.valueOf(target.changes)).append('\t').append(String.valueOf(target.observedMillis)).append('\t')
+                        .append(String.valueOf(target.lastVisitMillis)).append('\t').append(target.lastHash.isEmpty() ? "-" : target.lastHash)
+                        .append('\t').append(String.valueOf(target.nextVisitMillis)).append('\n');
+            }
+        } catch (IOException e) {
+            ScraperLog.warn("could not save revisit state", "file", stateFile, "error", e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            ScraperLog.warn("could not save revisit state", "file", stateFile, "error", e.getMessage());
+        }
+    }
+
+    // Most volatile first; targets without an estimate yet sort last
+    private List<Target> byVolatility() {
+        List<Target> sorted = new ArrayList<>(targets.values());
+        sorted.sort((a, b) -> Double.compare(Double.isNaN(b.changesPerHour()) ? 0 : b.changesPerHour(),
+                Double.isNaN(a.changesPerHour()) ? 0 : a.changesPerHour()));
+        return sorted;
+    }
+}
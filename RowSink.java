@@ -0,0 +1,64 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only rows of one extraction run. A sink opened with OutputPipeline.dataset also publishes every
+ * row to the output sinks as it is added, and must be closed when the run ends so the dataset name is free
+ * for the next run; new RowSink() only collects.
+ */
+public class RowSink implements AutoCloseable {
+
+    private final String dataset;
+    private final Consumer<String[]> publisher;
+    private final Runnable onClose;
+    private final List<String[]> rows = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * A sink that only collects rows
+     */
+    public RowSink() {
+        this(null, null, null);
+    }
+
+    RowSink(String dataset, Consumer<String[]> publisher, Runnable onClose) {
+        this.dataset = dataset;
+        this.publisher = publisher;
+        this.onClose = onClose;
+    }
+
+    public void add(String[] row) {
+        if (publisher != null) {
+            publisher.accept(row);
+        }
+        rows.add(row);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Read-only view of the rows added so far
+     */
+    public List<String[]> rows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Name the rows are published under, or null for a collecting sink
+     */
+    public String dataset() {
+        return dataset;
+    }
+
+    @Override
+    public void close() {
+        if (!closed && onClose != null) {
+            onClose.run();
+        }
+        closed = true;
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Text cleaning for extracted rows, done in one pass into a reusable per-thread buffer instead of
+ * replace / substring / concatenation chains that each copy the string again.
+ *
+ * Values that repeat on every row of a page or crawl (page titles, section names, locations, vehicle
+ * classes) are interned here, so a million-row crawl holds one copy of each instead of one per row.
+ * The intern tables are bounded by -Dtext.internMax (default 100000 entries each); past that, values
+ * are returned as they are.
+ */
+public final class RowText {
+
+    /** Pass as commaReplacement to drop commas instead of replacing them */
+    public static final char DROP = '\0';
+
+    private static final int MAX_INTERNED = Integer.getInteger("text.internMax", 100_000);
+    private static final String ELLIPSIS = "...";
+
+    // Plain char buffer: unlike a reused StringBuilder it never gets stuck in UTF-16 mode after one "•"
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+    private static final Map<String, String> INTERNED = new ConcurrentHashMap<>();
+    // Raw label -> cleaned and interned label, so a page title is cleaned once, not once per row
+    private static final Map<String, String> LABELS = new ConcurrentHashMap<>();
+
+    private static final class Buffer {
+        char[] chars = new char[256];
+        int length;
+
+        void append(String text, int start, int end) {
+            int count = end - start;
+            if (length + count > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + count));
+            }
+            text.getChars(start, end, chars, length);
+            length += count;
+        }
+
+        void append(char c) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            chars[length++] = c;
+        }
+    }
+
+    private RowText() {
+    }
+
+    /**
+     * The text without commas, as CSV fields have always been written; no copy when there is none
+     */
+    public static String stripCommas(String text) {
+        return clean(text, DROP, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Commas replaced (or dropped with DROP) and the result cut to maxLength characters plus "..."
+     */
+    public static String clean(String text, char commaReplacement, int maxLength) {
+        if (text == null) {
+            return null;
+        }
+        if (text.length() <= maxLength && text.indexOf(',') < 0) {
+            return text;
+        }
+        Buffer out = buffer();
+        appendClean(out, text, commaReplacement);
+        return finish(out, maxLength);
+    }
+
+    /**
+     * Concatenate the parts, replace commas and truncate in a single pass (null parts are skipped)
+     */
+    public static String concat(char commaReplacement, int maxLength, String... parts) {
+        Buffer out = buffer();
+        for (String part : parts) {
+            if (part != null) {
+                appendClean(out, part, commaReplacement);
+                if (out.length > maxLength) {
+                    break; // the rest would be cut anyway
+                }
+            }
+        }
+        return finish(out, maxLength);
+    }
+
+    /**
+     * Comma-free, interned form of a value that repeats across rows (page title, section, location)
+     */
+    public static String label(String text) {
+        if (text == null) {
+            return null;
+        }
+        String cleaned = LABELS.get(text);
+        if (cleaned != null) {
+            return cleaned;
+        }
+        cleaned = intern(stripCommas(text));
+        if (LABELS.size() < MAX_INTERNED) {
+            LABELS.putIfAbsent(text, cleaned);
+        }
+        return cleaned;
+    }
+
+    /**
+     * Canonical instance of a repeated value
+     */
+    public static String intern(String text) {
+        if (text == null) {
+            return null;
+        }
+        String canonical = INTERNED.get(text);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (INTERNED.size() >= MAX_INTERNED) {
+            return text;
+        }
+        canonical = INTERNED.putIfAbsent(text, text);
+        return canonical == null ? text : canonical;
+    }
+
+    /**
+     * Write one CSV line straight into the writer: fields comma-separated, line breaks inside a value
+     * folded to spaces so a multi-line heading cannot split the row
+     */
+    public static void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                writer.write("null"); // what String.join wrote
+                continue;
+            }
+            int start = 0;
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\n' || ch == '\r') {
+                    writer.write(value, start, c - start);
+                    writer.write(' ');
+                    start = c + 1;
+                }
+            }
+            writer.write(value, start, value.length() - start);
+        }
+        writer.write('\n');
+    }
+
+    private static Buffer buffer() {
+        Buffer out = BUFFER.get();
+        out.length = 0;
+        return out;
+    }
+
+    private static void appendClean(Buffer out, String text, char commaReplacement) {
+        int start = 0;
+        for (int c = text.indexOf(','); c >= 0; c = text.indexOf(',', start)) {
+            out.append(text, start, c);
+            if (commaReplacement != DROP) {
+                out.append(commaReplacement);
+            }
+            start = c + 1;
+        }
+        out.append(text, start, text.length());
+    }
+
+    private static String finish(Buffer out, int maxLength) {
+        if (out.length > maxLength) {
+            out.length = maxLength;
+            out.append(ELLIPSIS, 0, ELLIPSIS.length());
+        }
+        String result = new String(out.chars, 0, out.length);
+        if (out.chars.length > 64 * 1024) {
+            // Don't let one huge value pin a large buffer to the thread
+            BUFFER.set(new Buffer());
+        }
+        return result;
+    }
+}
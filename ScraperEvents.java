@@ -0,0 +1,229 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Java Flight Recorder events for the scrapers: one per WebDriver command, one per WebDriverWait.until
+ * (see RecordingWait), one per extraction stage and one per detected price drop. Record a run with
+ *   java -XX:StartFlightRecording=filename=scrape.jfr HertzScraper
+ * and open it in JDK Mission Control next to the GC and CPU data. When no recording is running the
+ * events are disabled and cost close to nothing.
+ */
+public final class ScraperEvents {
+
+    @Name("scraper.WebDriverCommand")
+    @Label("WebDriver Command")
+    @Category({"Scraper", "WebDriver"})
+    @Description("One WebDriver / WebElement call and how long chromedriver + Chrome took to answer it")
+    static class WebDriverCommandEvent extends Event {
+        @Label("Command")
+        String command;
+
+        @Label("Target")
+        String target;
+
+        @Label("Locator")
+        String locator;
+
+        @Label("Outcome")
+        String outcome;
+    }
+
+    @Name("scraper.Wait")
+    @Label("WebDriverWait")
+    @Category({"Scraper", "WebDriver"})
+    @Description("A WebDriverWait.until call: the condition, the time actually waited and whether it timed out")
+    static class WaitEvent extends Event {
+        @Label("Condition")
+        String condition;
+
+        @Label("Timeout (ms)")
+        long timeoutMillis;
+
+        @Label("Timed Out")
+        boolean timedOut;
+    }
+
+    @Name("scraper.ExtractionStage")
+    @Label("Extraction Stage")
+    @Category({"Scraper", "Extraction"})
+    @Description("One stage of a HertzScraper / SwiftRide run and the rows it produced")
+    static class ExtractionStageEvent extends Event {
+        @Label("Site")
+        String site;
+
+        @Label("Stage")
+        String stage;
+
+        @Label("Rows")
+        int rows;
+    }
+
+    @Name("scraper.PriceDrop")
+    @Label("Price Drop")
+    @Category({"Scraper", "Extraction"})
+    @Description("A listing's per-day price fell below the last price seen for it in this process")
+    static class PriceDropEvent extends Event {
+        @Label("Site")
+        String site;
+
+        @Label("Location")
+        String location;
+
+        @Label("Vehicle")
+        String vehicle;
+
+        @Label("Currency")
+        String currency;
+
+        @Label("Previous Per Day (minor)")
+        long previousMinor;
+
+        @Label("Current Per Day (minor)")
+        long currentMinor;
+    }
+
+    /**
+     * An open extraction stage; closing it commits the event with the number of rows added meanwhile and
+     * logs the stage duration. While open, site and stage are part of the thread's ScraperLog context.
+     */
+    public static final class Stage implements AutoCloseable {
+        private final ExtractionStageEvent event = new ExtractionStageEvent();
+        private final RowSink rows;
+        private final int startRows;
+        private final long startNanos = System.nanoTime();
+        private final String outerSite;
+        private final String outerStage;
+
+        Stage(String site, String stage, RowSink rows) {
+            this.rows = rows;
+            this.startRows = rows == null ? 0 : rows.size();
+            this.outerSite = ScraperLog.put("site", site);
+            this.outerStage = ScraperLog.put("stage", stage);
+            event.site = site;
+            event.stage = stage;
+            event.begin();
+        }
+
+        /**
+         * The rows this stage counts; the stage body appends its rows here
+         */
+        public RowSink rows() {
+            return rows;
+        }
+
+        @Override
+        public void close() {
+            event.end();
+            int added = rows == null ? 0 : rows.size() - startRows;
+            if (event.shouldCommit()) {
+                event.rows = added;
+                event.commit();
+            }
+            ScraperLog.info("stage finished", "rows", added, "durationMs", (System.nanoTime() - startNanos) / 1_000_000);
+            ScraperLog.put("stage", outerStage);
+            ScraperLog.put("site", outerSite);
+        }
+    }
+
+    private ScraperEvents() {
+    }
+
+    /**
+     * Start timing an extraction stage: try (ScraperEvents.Stage s = ScraperEvents.stage(...)) { ... }
+     */
+    public static Stage stage(String site, String stage, RowSink rows) {
+        return new Stage(site, stage, rows);
+    }
+
+    public static void priceDrop(VehicleListing listing, long previousMinor, long currentMinor) {
+        PriceDropEvent event = new PriceDropEvent();
+        if (event.shouldCommit()) {
+            event.site = listing.site;
+            event.location = listing.location;
+            event.vehicle = listing.title;
+            event.currency = listing.price.currency;
+            event.previousMinor = previousMinor;
+            event.currentMinor = currentMinor;
+            event.commit();
+        }
+    }
+
+    /**
+     * Wrap a driver so every command it (and its elements) executes emits a WebDriverCommand event.
+     * Disabled with -Dscraper.events=false.
+     */
+    public static WebDriver instrument(WebDriver driver) {
+        if (!Boolean.parseBoolean(System.getProperty("scraper.events", "true"))) {
+            return driver;
+        }
+        CommandListener listener = new CommandListener();
+        WebDriver decorated = new EventFiringDecorator<>(listener).decorate(driver);
+        listener.session = decorated;
+        return decorated;
+    }
+
+    // Per-thread stack so before/after callbacks pair up even when several browser threads are running
+    private static final class CommandListener implements WebDriverListener {
+        private final ThreadLocal<Deque<WebDriverCommandEvent>> inFlight = ThreadLocal.withInitial(ArrayDeque::new);
+        // The decorated driver, as the pool and SessionHealth know it
+        private volatile WebDriver session;
+
+        @Override
+        public void beforeAnyCall(Object target, Method method, Object[] args) {
+            WebDriverCommandEvent event = new WebDriverCommandEvent();
+            event.begin();
+            inFlight.get().push(event);
+        }
+
+        @Override
+        public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+            finish(target, method, args, "ok");
+        }
+
+        @Override
+        public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+            finish(target, method, args, e.getTargetException().getClass().getSimpleName());
+        }
+
+        private void finish(Object target, Method method, Object[] args, String outcome) {
+            if (session != null) {
+                SessionHealth.commandFinished(session);
+            }
+            WebDriverCommandEvent event = inFlight.get().poll();
+            if (event == null) {
+                return;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.command = method.getName();
+                event.target = target.getClass().getSimpleName();
+                event.locator = locatorOf(args);
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+
+        private static String locatorOf(Object[] args) {
+            if (args != null) {
+                for (Object arg : args) {
+                    if (arg instanceof By) {
+                        return arg.toString();
+                    }
+                }
+            }
+            return "";
+        }
+    }
+}
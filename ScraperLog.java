@@ -0,0 +1,325 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous structured logging for the scrapers. A log call checks the level, then drops one event
+ * into a bounded lock-free ring buffer; a single writer thread formats and writes the events, so browser
+ * threads never wait on the console stream lock.
+ *
+ *   ScraperLog.warn("vehicle extraction failed", "index", i + 1, "error", e.getMessage());
+ *
+ * Fields are key / value pairs; values should be immutable (strings, numbers), since they are formatted
+ * later on the writer thread. Each event also carries the calling thread's context (site, stage, url),
+ * set by ScraperEvents.stage and CdpTransport.get.
+ *
+ *   -Dlog.level   DEBUG, INFO (default), WARN or ERROR; the step-by-step demo output is DEBUG
+ *   -Dlog.format  text (default) or json, one object per line
+ *   -Dlog.file    append to this file instead of stdout
+ *   -Dlog.buffer  ring buffer capacity in events (default 8192, rounded up to a power of two)
+ *
+ * When the buffer is full, DEBUG and INFO events are dropped and counted (the writer reports the count);
+ * WARN and ERROR events wait for space.
+ */
+public final class ScraperLog {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final Level THRESHOLD = Level.valueOf(System.getProperty("log.level", "INFO").trim().toUpperCase(Locale.ROOT));
+    private static final boolean JSON = "json".equalsIgnoreCase(System.getProperty("log.format", "text").trim());
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+    private static final String[] NO_CONTEXT = new String[0];
+
+    private static final class Event {
+        final long millis;
+        final Level level;
+        final String thread;
+        final String message;
+        final String[] context;
+        final Object[] fields;
+
+        Event(Level level, String message, String[] context, Object[] fields) {
+            this.millis = System.currentTimeMillis();
+            this.level = level;
+            this.thread = Thread.currentThread().getName();
+            this.message = message;
+            this.context = context;
+            this.fields = fields;
+        }
+    }
+
+    // Bounded multi-producer / single-consumer ring: a producer claims a position by CAS on tail, fills the
+    // slot, then publishes it through the slot's sequence number (position + 1); the writer frees the slot
+    // for the next lap by setting the sequence to position + capacity.
+    private static final int CAPACITY = Integer.highestOneBit(Math.max(2, Integer.getInteger("log.buffer", 8192) - 1) << 1);
+    private static final int MASK = CAPACITY - 1;
+    private static final Event[] SLOTS = new Event[CAPACITY];
+    private static final AtomicLongArray SEQUENCES = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong TAIL = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static volatile long written;
+    private static volatile boolean sleeping;
+    private static volatile boolean flushRequested;
+
+    // Context pairs {key, value, key, value ...}; replaced, never modified, so events can share the array
+    private static final ThreadLocal<String[]> CONTEXT = ThreadLocal.withInitial(() -> NO_CONTEXT);
+
+    private static final Thread WRITER;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            SEQUENCES.set(i, i);
+        }
+        WRITER = new Thread(ScraperLog::drainLoop, "scraper-log");
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(ScraperLog::flush, "scraper-log-flush"));
+    }
+
+    private ScraperLog() {
+    }
+
+    public static boolean enabled(Level level) {
+        return level.compareTo(THRESHOLD) >= 0;
+    }
+
+    public static void debug(String message, Object... fields) {
+        if (THRESHOLD == Level.DEBUG) {
+            log(Level.DEBUG, message, fields);
+        }
+    }
+
+    public static void info(String message, Object... fields) {
+        if (enabled(Level.INFO)) {
+            log(Level.INFO, message, fields);
+        }
+    }
+
+    public static void warn(String message, Object... fields) {
+        if (enabled(Level.WARN)) {
+            log(Level.WARN, message, fields);
+        }
+    }
+
+    public static void error(String message, Object... fields) {
+        log(Level.ERROR, message, fields);
+    }
+
+    /**
+     * Set (or with null, remove) a context field of the calling thread; returns the previous value
+     */
+    public static String put(String key, String value) {
+        String[] context = CONTEXT.get();
+        String previous = null;
+        int at = -1;
+        for (int i = 0; i < context.length; i += 2) {
+            if (context[i].equals(key)) {
+                previous = context[i + 1];
+                at = i;
+                break;
+            }
+        }
+        if (at >= 0 && value == null) {
+            String[] removed = new String[context.length - 2];
+            System.arraycopy(context, 0, removed, 0, at);
+            System.arraycopy(context, at + 2, removed, at, context.length - at - 2);
+            CONTEXT.set(removed);
+        } else if (at >= 0) {
+            String[] replaced = context.clone();
+            replaced[at + 1] = value;
+            CONTEXT.set(replaced);
+        } else if (value != null) {
+            String[] added = Arrays.copyOf(context, context.length + 2);
+            added[context.length] = key;
+            added[context.length + 1] = value;
+            CONTEXT.set(added);
+        }
+        return previous;
+    }
+
+    /**
+     * Wait (up to 5 s) until everything logged so far is written; also run on JVM shutdown
+     */
+    public static void flush() {
+        long target = TAIL.get();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (written < target && System.nanoTime() < deadline && WRITER.isAlive()) {
+            flushRequested = true;
+            LockSupport.unpark(WRITER);
+            LockSupport.parkNanos(1_000_000L);
+        }
+    }
+
+    /**
+     * Events dropped so far because the buffer was full
+     */
+    public static long dropped() {
+        return DROPPED.get();
+    }
+
+    private static void log(Level level, String message, Object[] fields) {
+        Event event = new Event(level, message, CONTEXT.get(), fields);
+        while (!offer(event)) {
+            if (level.compareTo(Level.WARN) < 0 || !WRITER.isAlive()) {
+                DROPPED.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(WRITER);
+            Thread.yield();
+        }
+        if (sleeping) {
+            LockSupport.unpark(WRITER);
+        }
+    }
+
+    private static boolean offer(Event event) {
+        while (true) {
+            long position = TAIL.get();
+            int slot = (int) position & MASK;
+            long lag = SEQUENCES.get(slot) - position;
+            if (lag == 0) {
+                if (TAIL.compareAndSet(position, position + 1)) {
+                    SLOTS[slot] = event;
+                    SEQUENCES.lazySet(slot, position + 1);
+                    return true;
+                }
+            } else if (lag < 0) {
+                return false; // the writer has not freed this slot yet: full
+            }
+            // lag > 0: another producer took the position, reload the tail
+        }
+    }
+
+    private static void drainLoop() {
+        Writer out = openOutput();
+        long head = 0;
+        long reportedDrops = 0;
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            try {
+                int batch = 0;
+                while (true) {
+                    int slot = (int) head & MASK;
+                    if (SEQUENCES.get(slot) != head + 1) {
+                        break;
+                    }
+                    Event event = SLOTS[slot];
+                    SLOTS[slot] = null;
+                    SEQUENCES.lazySet(slot, head + CAPACITY);
+                    head++;
+                    line.setLength(0);
+                    format(event, line);
+                    out.append(line);
+                    batch++;
+                }
+                long drops = DROPPED.get();
+                if (drops != reportedDrops) {
+                    line.setLength(0);
+                    format(new Event(Level.WARN, "log events dropped, buffer full", NO_CONTEXT,
+                            new Object[]{"dropped", drops - reportedDrops, "capacity", CAPACITY}), line);
+                    out.append(line);
+                    reportedDrops = drops;
+                    batch++;
+                }
+                if (batch == 0 || flushRequested) {
+                    flushRequested = false;
+                    out.flush();
+                    written = head;
+                }
+                if (batch == 0) {
+                    sleeping = true;
+                    // Re-check after announcing the sleep, so an event published meanwhile is not left waiting
+                    if (SEQUENCES.get((int) head & MASK) != head + 1) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Log writer failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static Writer openOutput() {
+        String file = System.getProperty("log.file");
+        if (file != null && !file.trim().isEmpty()) {
+            try {
+                return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file.trim(), true), StandardCharsets.UTF_8), 64 * 1024);
+            } catch (IOException e) {
+                System.err.println("Could not open log file " + file + ", logging to stdout: " + e.getMessage());
+            }
+        }
+        return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private static void format(Event event, StringBuilder line) {
+        if (JSON) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("time", Instant.ofEpochMilli(event.millis).toString());
+            json.put("level", event.level.name());
+            json.put("thread", event.thread);
+            json.put("message", event.message);
+            for (int i = 0; i + 1 < event.context.length; i += 2) {
+                json.put(event.context[i], event.context[i + 1]);
+            }
+            for (int i = 0; i + 1 < event.fields.length; i += 2) {
+                Object value = event.fields[i + 1];
+                json.put(String.valueOf(event.fields[i]), value instanceof Number || value instanceof Boolean || value == null
+                        ? value : value.toString());
+            }
+            Json.write(json, line);
+        } else {
+            line.append(Instant.ofEpochMilli(event.millis)).append(' ');
+            line.append(event.level.name());
+            for (int pad = event.level.name().length(); pad < 5; pad++) {
+                line.append(' ');
+            }
+            line.append(" [").append(event.thread).append("] ").append(event.message);
+            for (int i = 0; i + 1 < event.context.length; i += 2) {
+                appendField(line, event.context[i], event.context[i + 1]);
+            }
+            for (int i = 0; i + 1 < event.fields.length; i += 2) {
+                appendField(line, String.valueOf(event.fields[i]), event.fields[i + 1]);
+            }
+        }
+        line.append('\n');
+    }
+
+    // key=value, quoted when the value has spaces, quotes or line breaks
+    private static void appendField(StringBuilder line, String key, Object value) {
+        line.append(' ').append(key).append('=');
+        String text = String.valueOf(value);
+        boolean quote = text.isEmpty();
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ' ' || c == '"' || c == '\n' || c == '\r' || c == '\t' || c == '=';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c == '\n' || c == '\r') {
+                line.append(' ');
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,213 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Health of one pooled browser session: pages loaded, jobs served, age, the renderer's JS heap and DOM size,
+ * and how fast it answers a probe script. Chrome grows with every page it renders and a crashed or hung
+ * renderer makes every later wait burn its full timeout, so sessions past a threshold are recycled
+ * (see BrowserPool) instead of kept for the life of the process.
+ *
+ * Thresholds, each disabled with 0:
+ *   -Dsession.maxPages=200          page loads (CdpTransport.get and opened tabs)
+ *   -Dsession.maxJobs=50            crawl jobs served
+ *   -Dsession.maxAgeMinutes=180     time since launch
+ *   -Dsession.maxHeapMb=768         JS heap of the current page (performance.memory)
+ *   -Dsession.maxLatencyMs=3000     smoothed probe round trip
+ *   -Dsession.probeTimeoutSeconds=30  no probe answer within this is an unresponsive session
+ *   -Dsession.stallSeconds=180      a busy session with no WebDriver command completed for this long is hung;
+ *                                   keep it above the longest command timeout (page loads, async scripts)
+ *
+ * Busy sessions are not probed: chromedriver runs one command per session at a time, so a probe would queue
+ * behind the job's own long command. Their command completions are counted instead (see ScraperEvents).
+ */
+public final class SessionHealth {
+
+    static final long MAX_PAGES = Long.getLong("session.maxPages", 200L);
+    static final long MAX_JOBS = Long.getLong("session.maxJobs", 50L);
+    static final long MAX_AGE_MILLIS = Long.getLong("session.maxAgeMinutes", 180L) * 60_000L;
+    static final long MAX_HEAP_BYTES = Long.getLong("session.maxHeapMb", 768L) * 1024L * 1024L;
+    static final long MAX_LATENCY_MILLIS = Long.getLong("session.maxLatencyMs", 3000L);
+    static final long PROBE_TIMEOUT_MILLIS = Long.getLong("session.probeTimeoutSeconds", 30L) * 1000L;
+    static final long STALL_MILLIS = Long.getLong("session.stallSeconds", 180L) * 1000L;
+
+    private static final double LATENCY_WEIGHT = 0.3;
+    private static final String PROBE_SCRIPT = "return [performance.memory ? performance.memory.usedJSHeapSize : -1,"
+            + " document.getElementsByTagName('*').length];";
+
+    private static final Map<WebDriver, SessionHealth> SESSIONS = new ConcurrentHashMap<>();
+    private static final AtomicInteger PROBE_THREADS = new AtomicInteger();
+    // Probes run on their own threads so a hung chromedriver call cannot block the caller past the timeout
+    private static final ExecutorService PROBES = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "session-probe-" + PROBE_THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long startedMillis = System.currentTimeMillis();
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong jobs = new AtomicLong();
+    private volatile long heapBytes = -1;
+    private volatile long domNodes = -1;
+    private volatile double latencyMillis = -1;
+    private volatile String brokenReason;
+    private volatile long jobStartedMillis;
+    private volatile long lastCommandMillis = -1;
+
+    private SessionHealth() {
+    }
+
+    /**
+     * Start tracking a freshly launched session
+     */
+    public static SessionHealth track(WebDriver driver) {
+        SessionHealth health = new SessionHealth();
+        SESSIONS.put(driver, health);
+        return health;
+    }
+
+    /**
+     * Health of a tracked session, or null for a driver nobody tracks
+     */
+    public static SessionHealth of(WebDriver driver) {
+        return SESSIONS.get(driver);
+    }
+
+    public static void forget(WebDriver driver) {
+        SESSIONS.remove(driver);
+    }
+
+    /**
+     * Count one page load on the session (no-op for untracked drivers)
+     */
+    public static void pageLoaded(WebDriver driver) {
+        SessionHealth health = SESSIONS.get(driver);
+        if (health != null) {
+            health.pages.incrementAndGet();
+        }
+    }
+
+    /**
+     * Count one completed WebDriver command on the session (no-op for untracked drivers)
+     */
+    public static void commandFinished(WebDriver driver) {
+        SessionHealth health = SESSIONS.get(driver);
+        if (health != null) {
+            health.lastCommandMillis = System.currentTimeMillis();
+        }
+    }
+
+    public void jobStarted() {
+        jobStartedMillis = System.currentTimeMillis();
+    }
+
+    public void jobFinished() {
+        jobs.incrementAndGet();
+    }
+
+    /**
+     * Milliseconds a busy session has gone without completing a command since its job started, or 0 when
+     * commands are not being counted (events disabled)
+     */
+    public long stalledMillis() {
+        if (lastCommandMillis < 0) {
+            return 0;
+        }
+        return System.currentTimeMillis() - Math.max(lastCommandMillis, jobStartedMillis);
+    }
+
+    /**
+     * Mark the session unusable (crashed, hung); recycleReason reports it from then on
+     */
+    public void markBroken(String reason) {
+        if (brokenReason == null) {
+            brokenReason = reason;
+        }
+    }
+
+    public boolean isBroken() {
+        return brokenReason != null;
+    }
+
+    /**
+     * Run the probe script with a timeout and record heap, DOM size and round trip; false (and the session
+     * marked broken) when it did not answer in time or the browser is gone
+     */
+    public boolean probe(WebDriver driver) {
+        long start = System.nanoTime();
+        Future<Object> answer = PROBES.submit(() -> ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT));
+        Object result;
+        try {
+            result = answer.get(PROBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            answer.cancel(true);
+            markBroken("unresponsive for " + PROBE_TIMEOUT_MILLIS / 1000 + " s");
+            return false;
+        } catch (ExecutionException e) {
+            // WebDriverException messages go on with build and system info: keep the first line
+            String message = String.valueOf(e.getCause().getMessage());
+            markBroken("probe failed: " + (message.indexOf('\n') < 0 ? message : message.substring(0, message.indexOf('\n'))));
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true; // not the session's fault
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        latencyMillis = latencyMillis < 0 ? millis : LATENCY_WEIGHT * millis + (1 - LATENCY_WEIGHT) * latencyMillis;
+        if (result instanceof List && ((List<?>) result).size() == 2) {
+            heapBytes = toLong(((List<?>) result).get(0));
+            domNodes = toLong(((List<?>) result).get(1));
+        }
+        return true;
+    }
+
+    /**
+     * Why the session should be replaced, or null while it is within every threshold
+     */
+    public String recycleReason() {
+        if (brokenReason != null) {
+            return brokenReason;
+        }
+        if (MAX_PAGES > 0 && pages.get() >= MAX_PAGES) {
+            return pages.get() + " pages loaded";
+        }
+        if (MAX_JOBS > 0 && jobs.get() >= MAX_JOBS) {
+            return jobs.get() + " jobs served";
+        }
+        if (MAX_AGE_MILLIS > 0 && System.currentTimeMillis() - startedMillis >= MAX_AGE_MILLIS) {
+            return "older than " + MAX_AGE_MILLIS / 60_000 + " min";
+        }
+        if (MAX_HEAP_BYTES > 0 && heapBytes >= MAX_HEAP_BYTES) {
+            return "JS heap " + heapBytes / (1024 * 1024) + " MB";
+        }
+        if (MAX_LATENCY_MILLIS > 0 && latencyMillis >= MAX_LATENCY_MILLIS) {
+            return String.format(Locale.ROOT, "probe latency %.0f ms", latencyMillis);
+        }
+        return null;
+    }
+
+    /**
+     * One-line summary for status output
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "pages=%d jobs=%d age=%dmin heap=%s dom=%s latency=%s%s", pages.get(), jobs.get(),
+                (System.currentTimeMillis() - startedMillis) / 60_000, heapBytes < 0 ? "?" : heapBytes / (1024 * 1024) + "MB",
+                domNodes < 0 ? "?" : String.valueOf(domNodes), latencyMillis < 0 ? "?" : String.format(Locale.ROOT, "%.0fms", latencyMillis),
+                brokenReason == null ? "" : " broken (" + brokenReason + ")");
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : -1;
+    }
+}
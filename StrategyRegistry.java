@@ -0,0 +1,356 @@
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Self-ranking fallback chains. Hot spots that try several alternatives (heading XPaths, ways to close a modal,
+ * autocomplete options) register them per site / page type / slot; the registry remembers which alternative
+ * actually worked and tries that one first next time.
+ *
+ * A lookup first gives the historical winner alone a short window (-Dstrategies.quickMillis, default 1500),
+ * then polls every alternative in rank order, one non-blocking attempt each per poll, until the caller's
+ * timeout. An optional slot (findOptional, e.g. a cookie banner that is no longer shown) where every alternative
+ * has missed three times in a row only gets the short window, so known-dead lookups stop costing a full wait
+ * per page; every tenth miss in a row still gets the full wait, so an element that comes back is found again.
+ * Required slots (find) always get the caller's full timeout.
+ *
+ * Rankings are an exponentially decayed success rate per alternative, kept in -Dstrategies.file
+ * (default strategy_rankings.tsv) across runs.
+ */
+public class StrategyRegistry {
+
+    public static final StrategyRegistry SHARED = new StrategyRegistry(
+            new File(System.getProperty("strategies.file", "strategy_rankings.tsv")), Long.getLong("strategies.quickMillis", 1500L));
+
+    private static final double DECAY = 0.8;
+    private static final int DEAD_AFTER_MISSES = 3;
+    private static final int DEAD_RECHECK_EVERY = 10;
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * One try of an alternative: returns the result, or null / throws when it did not work
+     */
+    public interface Attempt<T> {
+        T attempt(WebDriver driver) throws Exception;
+    }
+
+    public static final class Alternative<T> {
+        public final String name;
+        final Attempt<T> attempt;
+
+        Alternative(String name, Attempt<T> attempt) {
+            this.name = name;
+            this.attempt = attempt;
+        }
+    }
+
+    private static final class Score {
+        double rate;
+        long wins;
+        long misses;
+    }
+
+    private static final class Slot {
+        final Map<String, Score> scores = new HashMap<>();
+        int consecutiveMisses;
+    }
+
+    private final File file;
+    private final long quickMillis;
+    private final Map<String, Slot> slots = new LinkedHashMap<>();
+    private boolean dirty;
+
+    public StrategyRegistry(File file, long quickMillis) {
+        this.file = file;
+        this.quickMillis = quickMillis;
+        load();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::save, "strategy-registry-save"));
+    }
+
+    public static <T> Alternative<T> alternative(String name, Attempt<T> attempt) {
+        return new Alternative<>(name, attempt);
+    }
+
+    /**
+     * First element matching the locator, without waiting
+     */
+    public static Alternative<WebElement> present(By locator) {
+        return new Alternative<>(locator.toString(), driver -> {
+            List<WebElement> found = driver.findElements(locator);
+            return found.isEmpty() ? null : found.get(0);
+        });
+    }
+
+    /**
+     * First displayed and enabled element matching the locator, without waiting
+     */
+    public static Alternative<WebElement> clickable(By locator) {
+        return new Alternative<>(locator.toString(), driver -> {
+            for (WebElement element : driver.findElements(locator)) {
+                if (element.isDisplayed() && element.isEnabled()) {
+                    return element;
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Poll the alternatives (historical winner first) until one returns a result; throws TimeoutException
+     * when none does within the timeout
+     */
+    @SafeVarargs
+    public final <T> T find(WebDriver driver, String site, String page, String slotName, Duration timeout, Alternative<T>... alternatives) {
+        List<Alternative<T>> list = new ArrayList<>(alternatives.length);
+        for (Alternative<T> alternative : alternatives) {
+            list.add(alternative);
+        }
+        return find(driver, site, page, slotName, timeout, list);
+    }
+
+    /**
+     * find for alternatives built in a loop
+     */
+    public <T> T find(WebDriver driver, String site, String page, String slotName, Duration timeout, List<Alternative<T>> alternatives) {
+        T found = lookup(driver, key(site, page, slotName), timeout, alternatives, false);
+        if (found == null) {
+            throw new TimeoutException("None of " + alternatives.size() + " alternatives for " + key(site, page, slotName)
+                    + " matched within " + timeout.toMillis() + " ms");
+        }
+        return found;
+    }
+
+    /**
+     * find for an element that may legitimately be absent (cookie banner, popup): null when none matched, and
+     * a slot that keeps missing only gets the short window
+     */
+    @SafeVarargs
+    public final <T> T findOptional(WebDriver driver, String site, String page, String slotName, Duration timeout, Alternative<T>... alternatives) {
+        List<Alternative<T>> list = new ArrayList<>(alternatives.length);
+        for (Alternative<T> alternative : alternatives) {
+            list.add(alternative);
+        }
+        return lookup(driver, key(site, page, slotName), timeout, list, true);
+    }
+
+    private <T> T lookup(WebDriver driver, String key, Duration timeout, List<Alternative<T>> alternatives, boolean optional) {
+        List<Alternative<T>> ranked = ranked(key, alternatives);
+        long start = System.currentTimeMillis();
+        long budget = optional && isDead(key) ? Math.min(quickMillis, timeout.toMillis()) : timeout.toMillis();
+
+        // The winner alone gets the short window: no round trips spent on alternatives that never match
+        List<T> found = new ArrayList<>(1);
+        if (hasWon(key, ranked.get(0).name) && poll(driver, ranked.subList(0, 1), start + Math.min(quickMillis, budget), found) == 0) {
+            recordOutcome(key, ranked, 0);
+            return found.get(0);
+        }
+        int winner = poll(driver, ranked, start + budget, found);
+        if (winner >= 0) {
+            recordOutcome(key, ranked, winner);
+            return found.get(0);
+        }
+        recordOutcome(key, ranked, -1);
+        return null;
+    }
+
+    /**
+     * Try each action once in rank order until one reports success (returns TRUE); false when none did
+     */
+    @SafeVarargs
+    public final boolean perform(WebDriver driver, String site, String page, String slotName, Alternative<Boolean>... alternatives) {
+        String key = key(site, page, slotName);
+        List<Alternative<Boolean>> list = new ArrayList<>(alternatives.length);
+        for (Alternative<Boolean> alternative : alternatives) {
+            list.add(alternative);
+        }
+        List<Alternative<Boolean>> ranked = ranked(key, list);
+        for (int i = 0; i < ranked.size(); i++) {
+            if (Boolean.TRUE.equals(tryOnce(driver, ranked.get(i)))) {
+                recordOutcome(key, ranked, i);
+                return true;
+            }
+        }
+        recordOutcome(key, ranked, -1);
+        return false;
+    }
+
+    /**
+     * Rank order of named alternatives that run outside the registry (e.g. inside an in-page script)
+     */
+    public List<String> rank(String site, String page, String slotName, List<String> names) {
+        List<Alternative<Void>> alternatives = new ArrayList<>();
+        for (String name : names) {
+            alternatives.add(new Alternative<>(name, null));
+        }
+        List<String> order = new ArrayList<>();
+        for (Alternative<Void> alternative : ranked(key(site, page, slotName), alternatives)) {
+            order.add(alternative.name);
+        }
+        return order;
+    }
+
+    /**
+     * Record an outcome observed outside the registry: the alternatives tried, in order, and the one that
+     * worked (null when none did)
+     */
+    public void record(String site, String page, String slotName, List<String> tried, String winner) {
+        List<Alternative<Void>> alternatives = new ArrayList<>();
+        for (String name : tried) {
+            alternatives.add(new Alternative<>(name, null));
+        }
+        recordOutcome(key(site, page, slotName), alternatives, winner == null ? -1 : tried.indexOf(winner));
+    }
+
+    // Index of the alternative that matched (its result added to found), or -1 at the deadline
+    private static <T> int poll(WebDriver driver, List<Alternative<T>> alternatives, long deadline, List<T> found) {
+        while (true) {
+            for (int i = 0; i < alternatives.size(); i++) {
+                T result = tryOnce(driver, alternatives.get(i));
+                if (result != null) {
+                    found.add(result);
+                    return i;
+                }
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return -1;
+            }
+            try {
+                Thread.sleep(Math.min(POLL_MILLIS, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+    }
+
+    private static <T> T tryOnce(WebDriver driver, Alternative<T> alternative) {
+        try {
+            return alternative.attempt.attempt(driver);
+        } catch (Exception e) {
+            return null; // stale element, not interactable, ...: a miss like any other
+        }
+    }
+
+    private synchronized <T> List<Alternative<T>> ranked(String key, List<Alternative<T>> alternatives) {
+        Slot slot = slots.get(key);
+        List<Alternative<T>> ranked = new ArrayList<>(alternatives);
+        if (slot != null) {
+            // Stable sort: alternatives without history keep the order the caller declared
+            ranked.sort((a, b) -> Double.compare(rate(slot, b.name), rate(slot, a.name)));
+        }
+        return ranked;
+    }
+
+    private static double rate(Slot slot, String name) {
+        Score score = slot.scores.get(name);
+        return score == null ? 0 : score.rate;
+    }
+
+    private synchronized boolean hasWon(String key, String name) {
+        Slot slot = slots.get(key);
+        Score score = slot == null ? null : slot.scores.get(name);
+        return score != null && score.wins > 0;
+    }
+
+    // Dead after DEAD_AFTER_MISSES misses in a row, except on every DEAD_RECHECK_EVERY-th lookup of the run of misses
+    private synchronized boolean isDead(String key) {
+        Slot slot = slots.get(key);
+        return slot != null && slot.consecutiveMisses >= DEAD_AFTER_MISSES && (slot.consecutiveMisses + 1) % DEAD_RECHECK_EVERY != 0;
+    }
+
+    // Everything ranked before the winner was tried and missed; everything after it was not needed
+    private synchronized <T> void recordOutcome(String key, List<Alternative<T>> ranked, int winner) {
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+        int last = winner < 0 ? ranked.size() - 1 : winner;
+        for (int i = 0; i <= last; i++) {
+            Score score = slot.scores.computeIfAbsent(ranked.get(i).name, n -> new Score());
+            boolean won = i == winner;
+            score.rate = DECAY * score.rate + (won ? 1 - DECAY : 0);
+            if (won) {
+                score.wins++;
+            } else {
+                score.misses++;
+            }
+        }
+        slot.consecutiveMisses = winner < 0 ? slot.consecutiveMisses + 1 : 0;
+        dirty = true;
+    }
+
+    private static String key(String site, String page, String slotName) {
+        return clean(site) + "|" + clean(page) + "|" + clean(slotName);
+    }
+
+    private static String clean(String part) {
+        return part == null ? "" : part.replaceAll("[|\\t\\r\\n]", " ");
+    }
+
+    private synchronized void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // key, consecutive slot misses, alternative, rate, wins, misses
+                String[] fields = line.split("\t");
+                if (fields.length != 6 || line.startsWith("#")) {
+                    continue;
+                }
+                Slot slot = slots.computeIfAbsent(fields[0], k -> new Slot());
+                slot.consecutiveMisses = Integer.parseInt(fields[1]);
+                Score score = new Score();
+                score.rate = Double.parseDouble(fields[3]);
+                score.wins = Long.parseLong(fields[4]);
+                score.misses = Long.parseLong(fields[5]);
+                slot.scores.put(fields[2], score);
+            }
+        } catch (IOException | NumberFormatException e) {
+            ScraperLog.warn("could not load strategy rankings", "file", file, "error", e.getMessage());
+        }
+    }
+
+    /**
+     * Write the rankings back (also done on JVM shutdown)
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileWriter writer = new FileWriter(temp)) {
+            writer.append("# slot\tslot misses\talternative\trate\twins\tmisses\n");
+            for (Map.Entry<String, Slot> slot : slots.entrySet()) {
+                for (Map.Entry<String, Score> score : slot.getValue().scores.entrySet()) {
+                    writer.append(slot.getKey()).append('\t').append(String.valueOf(slot.getValue().consecutiveMisses)).append('\t')
+                            .append(score.getKey()).append('\t').append(String.format(Locale.ROOT, "%.4f", score.getValue().rate)).append('\t')
+                            .append(String.valueOf(score.getValue().wins)).append('\t').append(String.valueOf(score.getValue().misses)).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            ScraperLog.warn("could not save strategy rankings", "file", file, "error", e.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            ScraperLog.warn("could not save strategy rankings", "file", file, "error", e.getMessage());
+        }
+    }
+}
@@ -10,35 +10,80 @@ import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.NoAlertPresentException;
 import org.openqa.selenium.Alert;
 import java.time.Duration;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 
 public class SwiftRide {
 
+    // Site root; overridable so the scraper can run against a local stand-in (see SyntheticRentalSite)
+    static final String BASE_URL = System.getProperty("swiftride.baseUrl", "https://swiftride.net");
+
     /**
      * Method to handle automatically  the browser alert dialogs
      */
     private static void manageWebPageAlerts(WebDriver driver) {
         try {
             // Create a wait instance to pause execution until alert appears
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(5));
+            WebDriverWait wait = new RecordingWait(driver, Duration.ofSeconds(5));
             Alert alert = wait.until(ExpectedConditions.alertIsPresent());
             
             // Display the alert message for debugging purposes
-            System.out.println("Alert text: " + alert.getText());
+            ScraperLog.info("alert present", "text", alert.getText());
             alert.accept(); // Click OK button on the alert
-            System.out.println("Alert accepted.");
+            ScraperLog.debug("alert accepted");
         } catch (NoAlertPresentException e) {
             // No problem if no alert exists
-            System.out.println("No alert present.");
+            ScraperLog.debug("no alert present");
         } catch (Exception e) {
             // Catch any other issues with alert handling
-            System.out.println("Error handling alert: " + e.getMessage());
+            ScraperLog.warn("alert handling failed", "error", e.getMessage());
         }
     }
 
+    private static final String[] HEADING_XPATHS = {
+        "//h1", "//h2[1]", "//div[contains(@class, 'hero')]", "//div[contains(@class, 'title')]"
+    };
+
+    /**
+     * Main heading of the page: the first heading candidate that matches, ranked per page by past matches
+     */
+    static WebElement findMainHeading(WebDriver driver, String page, boolean mustBeVisible) {
+        List<StrategyRegistry.Alternative<WebElement>> alternatives = new ArrayList<>(HEADING_XPATHS.length);
+        for (int i = 0; i < HEADING_XPATHS.length; i++) {
+            By locator = By.xpath(HEADING_XPATHS[i]);
+            alternatives.add(mustBeVisible ? StrategyRegistry.alternative(locator.toString(), d -> {
+                for (WebElement element : d.findElements(locator)) {
+                    if (element.isDisplayed()) {
+                        return element;
+                    }
+                }
+                return null;
+            }) : StrategyRegistry.present(locator));
+        }
+        return StrategyRegistry.SHARED.find(driver, "swiftride", page, "main-heading", Duration.ofSeconds(15), alternatives);
+    }
+
+    /**
+     * Close the chat popup, trying the ways that have worked before first; true once the popup is gone
+     */
+    private static boolean closePopup(WebDriver driver) {
+        By popup = By.id("cw-bubble-holder");
+        WebDriverWait closed = new RecordingWait(driver, Duration.ofSeconds(2));
+        return StrategyRegistry.SHARED.perform(driver, "swiftride", "cars", "popup-close",
+                StrategyRegistry.alternative("close-button", d -> {
+                    d.findElement(By.xpath("//*[@id='cw-bubble-holder']/button[2]")).click();
+                    return closed.until(ExpectedConditions.invisibilityOfElementLocated(popup));
+                }),
+                StrategyRegistry.alternative("escape", d -> {
+                    d.findElement(By.tagName("body")).sendKeys(Keys.ESCAPE);
+                    return closed.until(ExpectedConditions.invisibilityOfElementLocated(popup));
+                }),
+                StrategyRegistry.alternative("outside-click", d -> {
+                    ((JavascriptExecutor) d).executeScript("document.body.click();");
+                    return closed.until(ExpectedConditions.invisibilityOfElementLocated(popup));
+                }));
+    }
+
     /**
      * Task 3: Advanced Selenium - Handle pop-ups/modals
      * Shows how to interact with modal dialogs and wait for specific elements
@@ -54,18 +99,14 @@ public class SwiftRide {
                 // --- WAIT FOR POPUP CONTENT ---
                 Thread.sleep(1000);
 
-                // --- CLOSE POPUP ---
-                try {
-                    WebElement closeButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath("//*[@id='cw-bubble-holder']/button[2]")));
-                    closeButton.click();
-                    // Ensure popup disappears
-                    wait.until(ExpectedConditions.invisibilityOfElementLocated(By.id("cw-bubble-holder")));
-                } catch (Exception closeEx) {
+                // --- CLOSE POPUP --- (close button, ESC or a click outside, best-ranked first)
+                if (!closePopup(driver)) {
+                    ScraperLog.warn("chat popup did not close");
                 }
           
 
     } catch (Exception e) {
-        System.out.println("❌ Error in handlePopUps: " + e.getMessage());
+        ScraperLog.warn("popup handling failed", "error", e.getMessage());
     }
 }
 
@@ -73,12 +114,12 @@ public class SwiftRide {
      * Multi-page website navigation and data extraction
      * Systematically visits different sections of the same domain
      */
-    private static void performMultiPageDataCollection(WebDriver driver, WebDriverWait wait, List<String[]> multiPageData) {
+    private static void performMultiPageDataCollection(WebDriver driver, WebDriverWait wait, RowSink multiPageData) {
         // Define the sequence of pages to visit within the SwiftRide website
         String[] pagesToCrawl = {
-            "https://swiftride.net/",
-            "https://swiftride.net/how-it-works",
-            "https://swiftride.net/contact-us"
+            BASE_URL + "/",
+            BASE_URL + "/how-it-works",
+            BASE_URL + "/contact-us"
         };
         
         // Human-readable labels for each page being processed
@@ -88,47 +129,86 @@ public class SwiftRide {
             "Contact Us Page"
         };
         
+        // Multi-tab mode: load all pages as tabs of this one browser instead of one after another
+        int tabs = TabScheduler.configuredTabs();
+        if (tabs > 1) {
+            List<TabScheduler.TabTask> tasks = new ArrayList<>();
+            for (int i = 0; i < pagesToCrawl.length; i++) {
+                final int pageIndex = i;
+                tasks.add(new TabScheduler.TabTask() {
+                    public String url() {
+                        return pagesToCrawl[pageIndex];
+                    }
+
+                    public void extract(WebDriver tabDriver) {
+                        collectPageData(tabDriver, wait, pageIndex, pagesToCrawl[pageIndex], pageDescriptions[pageIndex], multiPageData);
+                    }
+                });
+            }
+            new TabScheduler(driver, tabs).runAll(tasks);
+            return;
+        }
+
         // Visit each page in sequence and extract relevant information
         for (int i = 0; i < pagesToCrawl.length; i++) {
+            ScraperLog.info("crawling page", "page", i + 1, "url", pagesToCrawl[i]);
             try {
-                System.out.println("Crawling page " + (i+1) + ": " + pagesToCrawl[i]);
-                driver.get(pagesToCrawl[i]); // Navigate to the specific URL
-                
-                // Ensure page content has fully loaded before proceeding
-                wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
-                
-                String pageTitle = driver.getTitle(); // Get the browser tab title
-                System.out.println("Page title: " + pageTitle);
-                
-                // Locate and extract the primary heading element from the page
-                try {
-                    // Use multiple XPath selectors to find the main heading reliably
-                    WebElement mainHeading = wait.until(ExpectedConditions.presenceOfElementLocated(
-                        By.xpath("//h1 | //h2[1] | //div[contains(@class, 'hero')] | //div[contains(@class, 'title')]")));
-                    String headingText = mainHeading.getText();
-                    // Store the heading info, removing commas to avoid CSV formatting issues
-                    multiPageData.add(new String[]{pageTitle.replace(",", ""), pageDescriptions[i] + " - Main Heading", headingText.replace(",", ""), pagesToCrawl[i]});
-                    System.out.println("Main heading: " + headingText);
-                } catch (Exception e) {
-                    System.out.println("Could not find main heading on " + pageDescriptions[i]);
-                    multiPageData.add(new String[]{pageTitle.replace(",", ""), pageDescriptions[i] + " - Main Heading", "No heading found", pagesToCrawl[i]});
-                }
-                
-                // Route to specialized extraction methods based on page type
+                CdpTransport.get(driver, pagesToCrawl[i]); // Navigate to the specific URL
+            } catch (Exception e) {
+                ScraperLog.warn("page crawl failed", "page", i + 1, "error", e.getMessage());
+                multiPageData.add(new String[]{"Error", pageDescriptions[i], "Failed to load page", e.getMessage()});
+                continue;
+            }
+            collectPageData(driver, wait, i, pagesToCrawl[i], pageDescriptions[i], multiPageData);
+
+            try {
+                Thread.sleep(3000); // Allow brief pause between page visits to avoid overwhelming server
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Extracts one already-loaded page; shared by the sequential crawl and the multi-tab mode
+     */
+    static void collectPageData(WebDriver driver, WebDriverWait wait, int i, String pageUrl, String pageDescription, RowSink multiPageData) {
+        try {
+            // Ensure page content has fully loaded before proceeding
+            wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+
+            String pageTitle = driver.getTitle(); // Get the browser tab title
+            ScraperLog.debug("page loaded", "title", pageTitle);
+            DomArchive.capture(driver); // Keep the rendered DOM for later re-extraction
+
+            // Locate and extract the primary heading element from the page
+            try {
+                // Several heading candidates; the one that matched last time on this page is tried first
+                WebElement mainHeading = findMainHeading(driver, pageDescription, false);
+                String headingText = mainHeading.getText();
+                // Store the heading info, removing commas to avoid CSV formatting issues
+                multiPageData.add(new String[]{RowText.label(pageTitle), pageDescription + " - Main Heading", RowText.stripCommas(headingText), pageUrl});
+                ScraperLog.debug("main heading", "text", headingText);
+            } catch (Exception e) {
+                ScraperLog.warn("main heading not found", "pageType", pageDescription);
+                multiPageData.add(new String[]{RowText.label(pageTitle), pageDescription + " - Main Heading", "No heading found", pageUrl});
+            }
+
+            // Route to specialized extraction methods based on page type (timed as one JFR stage)
+            try (ScraperEvents.Stage stage = ScraperEvents.stage("swiftride", pageDescription, multiPageData)) {
                 if (i == 0) { // Process home page content
-                    gatherHomepageInformation(driver, wait, multiPageData, pageTitle);
+                    gatherHomepageInformation(driver, wait, stage.rows(), pageTitle);
                 } else if (i == 1) { // Process how-it-works page content
-                    gatherProcessInformation(driver, wait, multiPageData, pageTitle);
+                    gatherProcessInformation(driver, wait, stage.rows(), pageTitle);
                 } else if (i == 2) { // Process contact page content
-                    gatherContactInformation(driver, wait, multiPageData, pageTitle);
+                    gatherContactInformation(driver, wait, stage.rows(), pageTitle);
                 }
-                
-                Thread.sleep(3000); // Allow brief pause between page visits to avoid overwhelming server
-                
-            } catch (Exception e) {
-                System.out.println("Error crawling page " + (i+1) + ": " + e.getMessage());
-                multiPageData.add(new String[]{"Error", pageDescriptions[i], "Failed to load page", e.getMessage()});
             }
+
+        } catch (Exception e) {
+            ScraperLog.warn("page crawl failed", "page", i + 1, "error", e.getMessage());
+            multiPageData.add(new String[]{"Error", pageDescription, "Failed to load page", e.getMessage()});
         }
     }
     
@@ -136,16 +216,16 @@ public class SwiftRide {
      * Specialized data extraction for the website's main landing page
      * Focuses on hero content and key messaging elements
      */
-    private static void gatherHomepageInformation(WebDriver driver, WebDriverWait wait, List<String[]> multiPageData, String pageTitle) {
+    private static void gatherHomepageInformation(WebDriver driver, WebDriverWait wait, RowSink multiPageData, String pageTitle) {
         try {
             // Search for the prominent hero banner text that captures attention
             try {
                 WebElement heroText = driver.findElement(By.xpath("//h1[contains(text(), 'Drive Your Dreams')]"));
                 String heroContent = heroText.getText().trim();
-                multiPageData.add(new String[]{pageTitle.replace(",", ""), "Hero Text", heroContent.replace(",", ""), ""});
-                System.out.println("Found hero text: " + heroContent);
+                multiPageData.add(new String[]{RowText.label(pageTitle), "Hero Text", RowText.stripCommas(heroContent), ""});
+                ScraperLog.debug("hero text found", "text", heroContent);
             } catch (Exception e) {
-                System.out.println("Could not find hero text: " + e.getMessage());
+                ScraperLog.warn("hero text not found", "error", e.getMessage());
             }
             
             // Extract the descriptive subtitle that explains the service offering
@@ -156,14 +236,14 @@ public class SwiftRide {
                 if (subtitleText.length() > 50) {
                     subtitleText = subtitleText.substring(0, 50) + "...";
                 }
-                multiPageData.add(new String[]{pageTitle.replace(",", ""), "Subtitle", subtitleText.replace(",", ""), ""});
-                System.out.println("Found subtitle: " + subtitleText);
+                multiPageData.add(new String[]{RowText.label(pageTitle), "Subtitle", RowText.stripCommas(subtitleText), ""});
+                ScraperLog.debug("subtitle found", "text", subtitleText);
             } catch (Exception e) {
-                System.out.println("Could not find subtitle: " + e.getMessage());
+                ScraperLog.warn("subtitle not found", "error", e.getMessage());
             }
             
         } catch (Exception e) {
-            System.out.println("Error extracting home page data: " + e.getMessage());
+            ScraperLog.warn("home page extraction failed", "error", e.getMessage());
         }
     }
     
@@ -171,16 +251,16 @@ public class SwiftRide {
      * Targeted content extraction for the process explanation page
      * Captures step-by-step instructions and workflow information
      */
-    private static void gatherProcessInformation(WebDriver driver, WebDriverWait wait, List<String[]> multiPageData, String pageTitle) {
+    private static void gatherProcessInformation(WebDriver driver, WebDriverWait wait, RowSink multiPageData, String pageTitle) {
         try {
             // Locate the primary heading that introduces the process explanation
             try {
                 WebElement mainHero = driver.findElement(By.xpath("//h1[contains(text(), 'couple')]"));
                 String heroText = mainHero.getText().trim();
-                multiPageData.add(new String[]{pageTitle.replace(",", ""), "Hero Section", heroText.replace(",", ""), ""});
-                System.out.println("Found hero text: " + heroText);
+                multiPageData.add(new String[]{RowText.label(pageTitle), "Hero Section", RowText.stripCommas(heroText), ""});
+                ScraperLog.debug("hero text found", "text", heroText);
             } catch (Exception e) {
-                System.out.println("Could not find hero section: " + e.getMessage());
+                ScraperLog.warn("hero section not found", "error", e.getMessage());
             }
             
             // Identify and collect the workflow step information (limiting to 2 for efficiency)
@@ -192,15 +272,15 @@ public class SwiftRide {
                 try {
                     WebElement step = steps.get(i);
                     String stepTitle = step.getText().trim();
-                    multiPageData.add(new String[]{pageTitle.replace(",", ""), "Process Step " + (i+1), stepTitle.replace(",", ""), ""});
-                    System.out.println("Found step: " + stepTitle);
+                    multiPageData.add(new String[]{RowText.label(pageTitle), "Process Step " + (i+1), RowText.stripCommas(stepTitle), ""});
+                    ScraperLog.debug("process step found", "index", i + 1, "step", stepTitle);
                 } catch (Exception e) {
-                    System.out.println("Error extracting step " + (i+1) + ": " + e.getMessage());
+                    ScraperLog.warn("process step extraction failed", "index", i + 1, "error", e.getMessage());
                 }
             }
             
         } catch (Exception e) {
-            System.out.println("Error extracting how it works page data: " + e.getMessage());
+            ScraperLog.warn("how it works extraction failed", "error", e.getMessage());
         }
     }
     
@@ -208,26 +288,26 @@ public class SwiftRide {
      * Contact page specific data mining
      * Collects support channels and communication methods
      */
-    private static void gatherContactInformation(WebDriver driver, WebDriverWait wait, List<String[]> multiPageData, String pageTitle) {
+    private static void gatherContactInformation(WebDriver driver, WebDriverWait wait, RowSink multiPageData, String pageTitle) {
         try {
             // Search for the welcoming customer service heading
             try {
                 WebElement mainHeading = driver.findElement(By.xpath("//h1[contains(text(), 'How Can We')]"));
                 String headingText = mainHeading.getText().trim();
-                multiPageData.add(new String[]{pageTitle.replace(",", ""), "Main Heading", headingText.replace(",", ""), ""});
-                System.out.println("Found main heading: " + headingText);
+                multiPageData.add(new String[]{RowText.label(pageTitle), "Main Heading", RowText.stripCommas(headingText), ""});
+                ScraperLog.debug("main heading", "text", headingText);
             } catch (Exception e) {
-                System.out.println("Could not find main heading: " + e.getMessage());
+                ScraperLog.warn("main heading not found", "error", e.getMessage());
             }
             
             // Extract direct email contact information for customer inquiries
             try {
                 WebElement emailLink = driver.findElement(By.xpath("//a[contains(@href, 'mailto:hello@swiftride.net')]"));
                 String emailText = emailLink.getText().trim();
-                multiPageData.add(new String[]{pageTitle.replace(",", ""), "Contact Email", emailText.replace(",", ""), ""});
-                System.out.println("Found email: " + emailText);
+                multiPageData.add(new String[]{RowText.label(pageTitle), "Contact Email", RowText.stripCommas(emailText), ""});
+                ScraperLog.debug("contact email found", "email", emailText);
             } catch (Exception e) {
-                System.out.println("Could not find email: " + e.getMessage());
+                ScraperLog.warn("contact email not found", "error", e.getMessage());
             }
             
             // Collect available customer support channels (limiting to 2 to keep data focused)
@@ -238,23 +318,268 @@ public class SwiftRide {
                 // Record each support method available to customers
                 for (int i = 0; i < titleCount; i++) {
                     String titleText = supportTitles.get(i).getText().trim();
-                    multiPageData.add(new String[]{pageTitle.replace(",", ""), "Support Option " + (i+1), titleText.replace(",", ""), ""});
-                    System.out.println("Found support option: " + titleText);
+                    multiPageData.add(new String[]{RowText.label(pageTitle), "Support Option " + (i+1), RowText.stripCommas(titleText), ""});
+                    ScraperLog.debug("support option found", "index", i + 1, "option", titleText);
                 }
             } catch (Exception e) {
-                System.out.println("Could not find support options: " + e.getMessage());
+                ScraperLog.warn("support options not found", "error", e.getMessage());
             }
             
         } catch (Exception e) {
-            System.out.println("Error extracting contact page data: " + e.getMessage());
+            ScraperLog.warn("contact page extraction failed", "error", e.getMessage());
         }
     }
 
+    // Card fields, in the order returned by readCardFields and CARD_FIELDS_SCRIPT
+    private static final int NAME = 0, YEAR = 1, PRICE = 2, PRICE_PERIOD = 3, AVAILABILITY = 4,
+            BASICS = 5, FEATURES = 6, LOCATION = 7, FIELD_COUNT = 8;
+
     /**
-     * Main execution method - orchestrates all web scraping tasks
-     * Coordinates browser setup, page navigation, and data collection
+     * Same XPath locators as readCardFields, evaluated inside the page for every card at once
      */
-    public static void main(String[] args) {
+    private static final String CARD_FIELDS_SCRIPT =
+        "function first(card, xpath) {" +
+        "  var node = document.evaluate(xpath, card, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+        "  return node ? node.innerText.trim() : null;" +
+        "}" +
+        "var grid = document.evaluate(\"//div[contains(@class, 'grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-2 xl:grid-cols-3')]\", document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+        "if (!grid) return [];" +
+        "var cards = document.evaluate(\".//div[contains(@class, 'rounded-lg border text-card-foreground shadow-sm flex flex-col w-full cursor-pointer')]\", grid, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+        "var result = [];" +
+        "for (var i = 0; i < cards.snapshotLength; i++) {" +
+        "  var card = cards.snapshotItem(i);" +
+        "  var basics = document.evaluate(\".//div[contains(@class, 'inline-flex items-center text-xs bg-gray-800')]\", card, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+        "  var parts = [];" +
+        "  for (var b = 0; b < basics.snapshotLength; b++) {" +
+        "    var text = basics.snapshotItem(b).innerText.trim();" +
+        "    if (text) parts.push(text);" +
+        "  }" +
+        "  result.push([" +
+        "    first(card, \".//h3[contains(@class, 'text-[#57E667]')]\")," +
+        "    first(card, \".//p[contains(@class, 'text-gray-400') and contains(@class, 'body-sm')]\")," +
+        "    first(card, \".//span[contains(@class, 'text-3xl font-bold text-white')]\")," +
+        "    first(card, \".//span[contains(@class, 'text-sm text-gray-400 font-medium')]\")," +
+        "    first(card, \".//span[contains(@class, 'bg-[#57E667]/20 text-[#57E667]')]\")," +
+        "    parts.join(' | ')," +
+        "    first(card, \".//p[contains(@class, 'text-xs text-gray-400 leading-relaxed')]\")," +
+        "    first(card, \".//span[contains(@class, 'inline-flex items-center') and contains(text(), 'mi •')]\")]);" +
+        "}" +
+        "return result;";
+
+    /**
+     * Vehicle data extraction: mines every card in the search results grid of the current page
+     */
+    static void extractVehicleCards(WebDriver driver, WebDriverWait wait, String mainPageTitle, RowSink rows) {
+        try {
+            List<String[]> cards = readVehicleCards(driver);
+            int cardCount = cards.size();
+            
+            ScraperLog.info("vehicle cards found", "vehicles", cardCount);
+            
+            if (cardCount > 0) {
+                // Task 3: Demonstrate advanced Selenium - handle vehicle interactions
+                ScraperLog.debug("task 3: popup handling");
+                handlePopUps(driver, wait, mainPageTitle);
+                
+                // Process each discovered vehicle element to extract detailed information
+                int maxVehicles = Math.min(10, cardCount); // Limit processing to avoid overwhelming data
+                for (int i = 0; i < maxVehicles; i++) {
+                    try {
+                        addVehicleRow(rows, mainPageTitle, "Honda Vehicle " + (i + 1), cards.get(i));
+                    } catch (Exception e) {
+                        ScraperLog.warn("vehicle extraction failed", "index", i + 1, "error", e.getMessage());
+                        // Add error entry with safe string handling
+                        rows.add(new String[]{
+                            RowText.label(mainPageTitle), 
+                            "Honda Vehicle " + (i+1), 
+                            "Data extraction failed", 
+                            "Error: " + RowText.clean(String.valueOf(e.getMessage()), ' ', Integer.MAX_VALUE)
+                        });
+                    }
+                }
+            } else {
+                ScraperLog.warn("no vehicle cards in search results");
+                rows.add(new String[]{RowText.label(mainPageTitle), "Search Results", "No Honda vehicles found", "Search may have returned no results"});
+            }
+            
+        } catch (Exception e) {
+            ScraperLog.warn("vehicle card extraction failed", "error", e.getMessage());
+            rows.add(new String[]{RowText.label(mainPageTitle), "Error", "Failed to extract Honda vehicles", RowText.clean(String.valueOf(e.getMessage()), ' ', Integer.MAX_VALUE)});
+        }
+    }
+
+    /**
+     * Classic WebDriver path: looks up each field of one card, leaving missing fields null
+     */
+    private static String[] readCardFields(WebElement vehicleCard) {
+        String[] fields = new String[FIELD_COUNT];
+        fields[NAME] = findText(vehicleCard, ".//h3[contains(@class, 'text-[#57E667]')]");
+        fields[YEAR] = findText(vehicleCard, ".//p[contains(@class, 'text-gray-400') and contains(@class, 'body-sm')]");
+        fields[PRICE] = findText(vehicleCard, ".//span[contains(@class, 'text-3xl font-bold text-white')]");
+        fields[PRICE_PERIOD] = findText(vehicleCard, ".//span[contains(@class, 'text-sm text-gray-400 font-medium')]");
+        fields[AVAILABILITY] = findText(vehicleCard, ".//span[contains(@class, 'bg-[#57E667]/20 text-[#57E667]')]");
+        
+        // Vehicle basics (fuel type, transmission, etc.)
+        try {
+            List<WebElement> basicElements = vehicleCard.findElements(By.xpath(".//div[contains(@class, 'inline-flex items-center text-xs bg-gray-800')]"));
+            StringBuilder basicsBuilder = new StringBuilder();
+            for (WebElement basic : basicElements) {
+                String basicText = basic.getText().trim();
+                if (!basicText.isEmpty()) {
+                    if (basicsBuilder.length() > 0) basicsBuilder.append(" | ");
+                    basicsBuilder.append(basicText);
+                }
+            }
+            fields[BASICS] = basicsBuilder.toString();
+        } catch (Exception e) {
+            fields[BASICS] = null;
+        }
+        
+        fields[FEATURES] = findText(vehicleCard, ".//p[contains(@class, 'text-xs text-gray-400 leading-relaxed')]");
+        fields[LOCATION] = findText(vehicleCard, ".//span[contains(@class, 'inline-flex items-center') and contains(text(), 'mi •')]");
+        return fields;
+    }
+
+    private static String findText(WebElement card, String xpath) {
+        try {
+            return card.findElement(By.xpath(xpath)).getText().trim();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Fields of every card in the results grid (waits up to 10 s for the grid): one DevTools round trip
+     * when the transport is on, otherwise one WebDriver command per field
+     */
+    @SuppressWarnings("unchecked")
+    static List<String[]> readVehicleCards(WebDriver driver) {
+        // Create extended wait period for dynamic vehicle loading
+        WebDriverWait vehicleWait = new RecordingWait(driver, Duration.ofSeconds(10));
+        
+        // Wait for the search results grid to appear
+        WebElement resultsGrid = vehicleWait.until(ExpectedConditions.presenceOfElementLocated(
+            By.xpath("//div[contains(@class, 'grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-2 xl:grid-cols-3')]")));
+        DomArchive.capture(driver);
+        
+        List<String[]> cards = new ArrayList<>();
+        CdpTransport transport = CdpTransport.forDriver(driver);
+        List<Object> raw = null;
+        if (transport != null) {
+            try {
+                raw = (List<Object>) transport.callFunction(CARD_FIELDS_SCRIPT);
+            } catch (Exception e) {
+                ScraperLog.warn("DevTools extraction failed, using classic WebDriver", "error", e.getMessage());
+            }
+        }
+        if (raw != null) {
+            for (Object card : raw) {
+                List<Object> values = (List<Object>) card;
+                String[] fields = new String[FIELD_COUNT];
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    fields[f] = values.get(f) == null ? null : values.get(f).toString();
+                }
+                cards.add(fields);
+            }
+            return cards;
+        }
+        
+        // Find all vehicle cards within the results grid
+        for (WebElement vehicleCard : resultsGrid.findElements(
+                By.xpath(".//div[contains(@class, 'rounded-lg border text-card-foreground shadow-sm flex flex-col w-full cursor-pointer')]"))) {
+            cards.add(readCardFields(vehicleCard));
+        }
+        return cards;
+    }
+
+    /**
+     * Identity of the vehicle behind a card (year, name, area, basics and features), so the same car
+     * returned by several searches is recognised as one
+     */
+    static String vehicleIdentity(String[] fields) {
+        StringBuilder identity = new StringBuilder();
+        for (int f : new int[]{YEAR, NAME, LOCATION, BASICS, FEATURES}) {
+            String value = f == LOCATION ? VehicleLocationIndex.areaOf(fields[f]) : fields[f];
+            identity.append(value == null ? "" : value.toLowerCase().replaceAll("\\s+", " ").trim()).append('|');
+        }
+        return identity.toString();
+    }
+
+    /**
+     * Parsed listing for a card; keyed by area ("Toronto, ON") since the distance part depends on the search origin
+     */
+    static VehicleListing toListing(String[] fields) {
+        String priceInfo = fields[PRICE] != null && fields[PRICE_PERIOD] != null ? fields[PRICE] + " " + fields[PRICE_PERIOD] : "";
+        String basics = fields[BASICS] == null ? "" : fields[BASICS];
+        return VehicleListing.fromSwiftRide(RowText.intern(VehicleLocationIndex.areaOf(fields[LOCATION])),
+                (fields[YEAR] != null ? fields[YEAR] : "") + " " + (fields[NAME] != null ? fields[NAME] : ""),
+                basics, PriceParser.parse(priceInfo, "USD", PriceParser.BillingPeriod.WEEK));
+    }
+
+    /**
+     * Turns one card's raw fields into a CSV row, applying the same fallbacks for missing data
+     */
+    static void addVehicleRow(RowSink rows, String mainPageTitle, String label, String[] fields) {
+        String vehicleName = fields[NAME] != null ? fields[NAME] : label;
+        String vehicleYear = fields[YEAR] != null ? fields[YEAR] : "Year not specified";
+        String priceInfo = fields[PRICE] != null && fields[PRICE_PERIOD] != null
+                ? fields[PRICE] + " " + fields[PRICE_PERIOD] : "Price not available";
+        String availability = fields[AVAILABILITY] != null ? fields[AVAILABILITY] : "Status unknown";
+        String basics = fields[BASICS] == null || fields[BASICS].isEmpty() ? "Basic info not available" : fields[BASICS];
+        String features = fields[FEATURES] == null || fields[FEATURES].isEmpty() ? "Features not listed" : fields[FEATURES];
+        String location = fields[LOCATION] != null ? fields[LOCATION] : "Location not specified";
+        
+        // Parse "$449 /week" into minor units so prices can be compared numerically
+        PriceParser.Price price = PriceParser.parse(priceInfo, "USD", PriceParser.BillingPeriod.WEEK);
+        
+        // Description and details are built, comma-cleaned and cut to 200 characters in one pass each
+        String cleanDescription = RowText.concat(' ', 200, vehicleYear, " ", vehicleName, " - ", features, " - ", basics);
+        String cleanDetails = RowText.concat(' ', 200, "Price: ", priceInfo, " | Location: ", location, " | Status: ", availability,
+                price == null ? null : " | Per Day: ", price == null ? null : PriceParser.format(price.currency, price.perDayMinor()),
+                price == null ? null : " | Per Week: ", price == null ? null : PriceParser.format(price.currency, price.perWeekMinor()));
+        
+        // Add to CSV data
+        rows.add(new String[]{
+            RowText.label(mainPageTitle), 
+            RowText.intern(label), 
+            cleanDescription, 
+            cleanDetails
+        });
+        
+        OutputPipeline.SHARED.publishListing(toListing(fields), priceInfo);
+        
+        ScraperLog.debug("vehicle extracted", "label", label, "vehicle", vehicleName, "year", vehicleYear, "price", priceInfo);
+    }
+
+    /**
+     * Types a query into the catalog search box and submits it (the cars page must already be open);
+     * false when the search could not be submitted and the page still shows unfiltered results
+     */
+    static boolean searchVehicles(WebDriverWait wait, String query) {
+        try {
+            ScraperLog.debug("searching vehicles", "query", query);
+            // Locate the search input field and ensure it's ready for interaction
+            WebElement searchInput = wait.until(ExpectedConditions.elementToBeClickable(
+                By.xpath("//input[@placeholder='Search by make, model, or year...']")));
+            searchInput.clear(); // Remove any existing text
+            searchInput.sendKeys(query); // Type the search term
+            Thread.sleep(1000);
+            searchInput.sendKeys(Keys.ENTER); // Submit the search
+            Thread.sleep(2000); // Wait for search results to load
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            ScraperLog.warn("search failed", "query", query, "error", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the browser session used by main and by the crawl daemon's warm pool
+     */
+    static WebDriver createDriver() {
         // Configure Chrome WebDriver location for Selenium automation
         System.setProperty("webdriver.chrome.driver", "/usr/local/bin/chromedriver");
 
@@ -265,18 +590,23 @@ public class SwiftRide {
         options.addArguments("--disable-blink-features=AutomationControlled"); // Hide automation indicators
         options.addArguments("--user-agent=Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36"); // Mimic real browser
 
-        // Initialize browser driver and wait handler for dynamic content
-        WebDriver driver = new ChromeDriver(options);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        // Initialize browser driver for dynamic content
+        return ScraperEvents.instrument(new ChromeDriver(options));
+    }
 
-        // Prepare data storage structure with CSV headers
-        List<String[]> allScrapedData = new ArrayList<>();
-        allScrapedData.add(new String[]{"Page Title", "Section", "Vehicle/Content Info", "Details"});
+    /**
+     * One full scraping run (search, vehicle cards, multi-page crawl) on an already running browser session
+     */
+    static void runCrawl(WebDriver driver) throws InterruptedException {
+        WebDriverWait wait = new RecordingWait(driver, Duration.ofSeconds(15));
+
+        // Prepare data storage structure with CSV headers; rows stream to the output sinks as they are added
+        try (RowSink allScrapedData = OutputPipeline.SHARED.dataset("swiftride_data")) {
+            allScrapedData.add(new String[]{"Page Title", "Section", "Vehicle/Content Info", "Details"});
 
-        try {
             // === PRIMARY TASK: Vehicle rental information extraction ===
-            System.out.println("=== TASK 1: SwiftRide Car Rental Scraping ===");
-            driver.get("https://swiftride.net/cars"); // Navigate to the cars catalog page
+            ScraperLog.info("task 1: vehicle search and extraction");
+            CdpTransport.get(driver, BASE_URL + "/cars"); // Navigate to the cars catalog page
             driver.manage().window().maximize(); // Ensure full page visibility
 
             // Allow page scripts and dynamic content to fully initialize
@@ -285,217 +615,62 @@ public class SwiftRide {
 
 
             // === SEARCH FUNCTIONALITY: Filter results by vehicle brand ===
-            try {
-                System.out.println("Searching for 'honda' vehicles...");
-                // Locate the search input field and ensure it's ready for interaction
-                WebElement searchInput = wait.until(ExpectedConditions.elementToBeClickable(
-                    By.xpath("//input[@placeholder='Search by make, model, or year...']")));
-                searchInput.clear(); // Remove any existing text
-                searchInput.sendKeys("honda"); // Type the search term
-                Thread.sleep(1000);
-                searchInput.sendKeys(Keys.ENTER); // Submit the search
-                Thread.sleep(2000); // Wait for search results to load
-            } catch (Exception e) {
-                System.out.println("Could not perform search: " + e.getMessage());
-            }
+            searchVehicles(wait, "honda");
 
             // Extract basic page identification information
             String mainPageTitle = driver.getTitle();
-            System.out.println("Page title: " + mainPageTitle);
-            
+            ScraperLog.debug("page loaded", "title", mainPageTitle);
+        
             // Attempt to capture the main page heading for context
             try {
-                WebElement mainHeading = wait.until(ExpectedConditions.visibilityOfElementLocated(
-                    By.xpath("//h1 | //h2[1] | //div[contains(@class, 'hero')] | //div[contains(@class, 'title')]")));
+                WebElement mainHeading = findMainHeading(driver, "cars", true);
                 String headingText = mainHeading.getText();
-                allScrapedData.add(new String[]{mainPageTitle.replace(",", ""), "Main Page Heading", headingText.replace(",", ""), ""});
-                System.out.println("Main heading: " + headingText);
+                allScrapedData.add(new String[]{RowText.label(mainPageTitle), "Main Page Heading", RowText.stripCommas(headingText), ""});
+                ScraperLog.debug("main heading", "text", headingText);
             } catch (Exception e) {
-                System.out.println("Could not find main heading: " + e.getMessage());
+                ScraperLog.warn("main heading not found", "error", e.getMessage());
                 // Provide fallback data if heading extraction fails
-                allScrapedData.add(new String[]{mainPageTitle.replace(",", ""), "SwiftRide Cars Page", "Car Rental Service", ""});
+                allScrapedData.add(new String[]{RowText.label(mainPageTitle), "SwiftRide Cars Page", "Car Rental Service", ""});
             }
 
 
 
             // === VEHICLE DATA EXTRACTION: Systematic content mining ===
-            try {
-                // Create extended wait period for dynamic vehicle loading
-                WebDriverWait vehicleWait = new WebDriverWait(driver, Duration.ofSeconds(10));
-                
-                // Wait for the search results grid to appear
-                WebElement resultsGrid = vehicleWait.until(ExpectedConditions.presenceOfElementLocated(
-                    By.xpath("//div[contains(@class, 'grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-2 xl:grid-cols-3')]")));
-                
-                // Find all vehicle cards within the results grid
-                List<WebElement> vehicleElements = resultsGrid.findElements(
-                    By.xpath(".//div[contains(@class, 'rounded-lg border text-card-foreground shadow-sm flex flex-col w-full cursor-pointer')]"));
-                
-                System.out.println("Found " + vehicleElements.size() + " Honda vehicles from search results");
-                
-                if (!vehicleElements.isEmpty()) {
-                    // Task 3: Demonstrate advanced Selenium - handle vehicle interactions
-                    System.out.println("\n=== TASK 3: Demonstrating Advanced Selenium Commands ===");
-                    handlePopUps(driver, wait, mainPageTitle);
-                    
-                    // Process each discovered vehicle element to extract detailed information
-                    int maxVehicles = Math.min(10, vehicleElements.size()); // Limit processing to avoid overwhelming data
-                    for (int i = 0; i < maxVehicles; i++) {
-                        WebElement vehicleCard = vehicleElements.get(i);
-                        try {
-                            // Initialize data collection variables with default values
-                            String vehicleName = "N/A";
-                            String vehicleYear = "N/A";
-                            String priceInfo = "N/A";
-                            String features = "N/A";
-                            String basics = "N/A";
-                            String location = "N/A";
-                            String availability = "N/A";
-                            
-                            // Extract vehicle name (Honda model)
-                            try {
-                                WebElement nameElement = vehicleCard.findElement(By.xpath(".//h3[contains(@class, 'text-[#57E667]')]"));
-                                vehicleName = nameElement.getText().trim();
-                            } catch (Exception e) {
-                                vehicleName = "Honda Vehicle " + (i + 1);
-                            }
-                            
-                            // Extract vehicle year
-                            try {
-                                WebElement yearElement = vehicleCard.findElement(By.xpath(".//p[contains(@class, 'text-gray-400') and contains(@class, 'body-sm')]"));
-                                vehicleYear = yearElement.getText().trim();
-                            } catch (Exception e) {
-                                vehicleYear = "Year not specified";
-                            }
-                            
-                            // Extract price information
-                            try {
-                                WebElement priceElement = vehicleCard.findElement(By.xpath(".//span[contains(@class, 'text-3xl font-bold text-white')]"));
-                                WebElement weeklyElement = vehicleCard.findElement(By.xpath(".//span[contains(@class, 'text-sm text-gray-400 font-medium')]"));
-                                priceInfo = priceElement.getText().trim() + " " + weeklyElement.getText().trim();
-                            } catch (Exception e) {
-                                priceInfo = "Price not available";
-                            }
-                            
-                            // Extract availability status
-                            try {
-                                WebElement availabilityElement = vehicleCard.findElement(By.xpath(".//span[contains(@class, 'bg-[#57E667]/20 text-[#57E667]')]"));
-                                availability = availabilityElement.getText().trim();
-                            } catch (Exception e) {
-                                availability = "Status unknown";
-                            }
-                            
-                            // Extract vehicle basics (fuel type, transmission, etc.)
-                            try {
-                                List<WebElement> basicElements = vehicleCard.findElements(By.xpath(".//div[contains(@class, 'inline-flex items-center text-xs bg-gray-800')]"));
-                                StringBuilder basicsBuilder = new StringBuilder();
-                                for (WebElement basic : basicElements) {
-                                    String basicText = basic.getText().trim();
-                                    if (!basicText.isEmpty()) {
-                                        if (basicsBuilder.length() > 0) basicsBuilder.append(" | ");
-                                        basicsBuilder.append(basicText);
-                                    }
-                                }
-                                basics = basicsBuilder.toString().isEmpty() ? "Basic info not available" : basicsBuilder.toString();
-                            } catch (Exception e) {
-                                basics = "Basic info not available";
-                            }
-                            
-                            // Extract features
-                            try {
-                                WebElement featuresElement = vehicleCard.findElement(By.xpath(".//p[contains(@class, 'text-xs text-gray-400 leading-relaxed')]"));
-                                features = featuresElement.getText().trim();
-                                if (features.isEmpty()) features = "Features not listed";
-                            } catch (Exception e) {
-                                features = "Features not listed";
-                            }
-                            
-                            // Extract location information
-                            try {
-                                WebElement locationElement = vehicleCard.findElement(By.xpath(".//span[contains(@class, 'inline-flex items-center') and contains(text(), 'mi •')]"));
-                                location = locationElement.getText().trim();
-                            } catch (Exception e) {
-                                location = "Location not specified";
-                            }
-                            
-                            // Create comprehensive vehicle description (safely handle length)
-                            String vehicleDescription = vehicleYear + " " + vehicleName + " - " + features + " - " + basics;
-                            String vehicleDetails = "Price: " + priceInfo + " | Location: " + location + " | Status: " + availability;
-                            
-                            // Clean strings by removing commas and limiting length safely
-                            String cleanDescription = vehicleDescription.replace(",", " ");
-                            String cleanDetails = vehicleDetails.replace(",", " ");
-                            
-                            // Safely truncate strings if they're too long
-                            if (cleanDescription.length() > 200) {
-                                cleanDescription = cleanDescription.substring(0, 200) + "...";
-                            }
-                            if (cleanDetails.length() > 200) {
-                                cleanDetails = cleanDetails.substring(0, 200) + "...";
-                            }
-                            
-                            // Add to CSV data
-                            allScrapedData.add(new String[]{
-                                mainPageTitle.replace(",", ""), 
-                                "Honda Vehicle " + (i+1), 
-                                cleanDescription, 
-                                cleanDetails
-                            });
-                            
-                            System.out.println("Extracted Honda " + (i+1) + ": " + vehicleName + " (" + vehicleYear + ") - " + priceInfo);
-                            
-                        } catch (Exception e) {
-                            System.out.println("Could not extract details for Honda vehicle " + (i+1) + ": " + e.getMessage());
-                            // Add error entry with safe string handling
-                            allScrapedData.add(new String[]{
-                                mainPageTitle.replace(",", ""), 
-                                "Honda Vehicle " + (i+1), 
-                                "Data extraction failed", 
-                                "Error: " + e.getMessage().replace(",", " ")
-                            });
-                        }
-                    }
-                } else {
-                    System.out.println("No Honda vehicles found in search results");
-                    allScrapedData.add(new String[]{mainPageTitle.replace(",", ""), "Search Results", "No Honda vehicles found", "Search may have returned no results"});
-                }
-                
-            } catch (Exception e) {
-                System.out.println("Error extracting Honda vehicle information: " + e.getMessage());
-                allScrapedData.add(new String[]{mainPageTitle.replace(",", ""), "Error", "Failed to extract Honda vehicles", e.getMessage().replace(",", " ")});
-            }
-
-            // === DATA PERSISTENCE: Export collected vehicle information ===
-            try (FileWriter csvWriter = new FileWriter("swiftride_data.csv")) {
-                // Write each data row to the CSV file with proper formatting
-                for (String[] rowData : allScrapedData) {
-                    csvWriter.append(String.join(",", rowData)); // Convert array to comma-separated values
-                    csvWriter.append("\n"); // Add newline for next record
-                }
-                System.out.println("All vehicle data from SwiftRide saved to swiftride_data.csv");
-            } catch (IOException e) {
-                System.err.println("Error writing to CSV file: " + e.getMessage());
+            try (ScraperEvents.Stage stage = ScraperEvents.stage("swiftride", "vehicle-cards", allScrapedData)) {
+                extractVehicleCards(driver, wait, mainPageTitle, stage.rows());
             }
 
             // === SECONDARY TASK: Comprehensive website navigation ===
-            System.out.println("\n=== TASK 2: Crawling Multiple Pages ===");
-            List<String[]> multiPageData = new ArrayList<>();
-            multiPageData.add(new String[]{"Page Title", "Section", "Content Info", "Details"});
-            
-            // Execute systematic exploration of different website sections
-            performMultiPageDataCollection(driver, wait, multiPageData);
-            
-            // Store multi-page exploration results in dedicated CSV file
-            try (FileWriter csvWriter = new FileWriter("swiftride_multipage_data.csv")) {
-                for (String[] rowData : multiPageData) {
-                    csvWriter.append(String.join(",", rowData)); // Convert array to CSV row
-                    csvWriter.append("\n"); // Add line break for next row
+            ScraperLog.info("task 2: crawling multiple pages");
+            try (RowSink multiPageData = OutputPipeline.SHARED.dataset("swiftride_multipage_data")) {
+                multiPageData.add(new String[]{"Page Title", "Section", "Content Info", "Details"});
+        
+                // Execute systematic exploration of different website sections
+                try (ScraperEvents.Stage stage = ScraperEvents.stage("swiftride", "multi-page-crawl", multiPageData)) {
+                    performMultiPageDataCollection(driver, wait, stage.rows());
                 }
-                System.out.println("Multi-page crawling data saved to swiftride_multipage_data.csv");
-            } catch (IOException e) {
-                System.err.println("Error writing multi-page CSV file: " + e.getMessage());
+        
+                // Wait until every sink has written (and fsynced) both datasets and the store sink has fed PriceStats
+                OutputPipeline.SHARED.flush();
+                ScraperLog.info("all tasks saved", "datasets", allScrapedData.dataset() + " " + multiPageData.dataset(),
+                        "rows", allScrapedData.size() + multiPageData.size());
+        
+                // Running min/max/mean/percentiles of the prices extracted in this run
+                PriceStats.SHARED.printSummary(VehicleListing.SWIFTRIDE);
             }
+        }
+    }
+
+    /**
+     * Main execution method - orchestrates all web scraping tasks
+     * Coordinates browser setup, page navigation, and data collection
+     */
+    public static void main(String[] args) {
+        PriceApiServer.startIfEnabled(0);
+        WebDriver driver = createDriver();
 
+        try {
+            runCrawl(driver);
         } catch (Exception mainException) {
             // Handle any unexpected errors during the scraping process
             System.err.println("Main execution error: " + mainException.getMessage());
@@ -504,7 +679,7 @@ public class SwiftRide {
         
         finally {
             // driver.quit(); // Commented out to keep Chrome open for debugging
-            System.out.println("Chrome browser left open for debugging. Close manually when done.");
+            ScraperLog.info("Chrome browser left open for debugging, close it manually when done");
         }
     }
 
@@ -0,0 +1,247 @@
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Search sweep over the SwiftRide catalog: runs a list of queries (makes, models, years) across parallel
+ * browser sessions and extracts every distinct vehicle once, however many queries return it.
+ *
+ *   java SwiftRideSweep [query ...]     (default -Dsweep.queries, a list of common makes)
+ *
+ * Parallelism is -Dsweep.sessions (default 3). Card results are cached per normalized query
+ * ("Civic  Honda" and "honda civic" are one query) in memory and in -Dsweep.cache (default sweep_cache)
+ * for -Dsweep.ttlSeconds (default 1800), so overlapping or repeated sweeps skip the browser.
+ * Cards are deduplicated by SwiftRide.vehicleIdentity; vehicles go to swiftride_sweep and a
+ * make / model / year breakdown to swiftride_sweep_breakdown.
+ */
+public class SwiftRideSweep {
+
+    private static final String DEFAULT_QUERIES =
+            "honda,toyota,ford,chevrolet,nissan,hyundai,kia,mazda,subaru,volkswagen,jeep,tesla,bmw,mercedes";
+
+    private static final class CachedCards {
+        final List<String[]> cards;
+        final long fetchedAtMillis;
+
+        CachedCards(List<String[]> cards, long fetchedAtMillis) {
+            this.cards = cards;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+    }
+
+    private final File cacheDirectory;
+    private final long ttlMillis;
+    private final Map<String, CachedCards> memory = new ConcurrentHashMap<>();
+
+    public SwiftRideSweep(File cacheDirectory, long ttlMillis) {
+        this.cacheDirectory = cacheDirectory;
+        this.ttlMillis = ttlMillis;
+        cacheDirectory.mkdirs();
+    }
+
+    /**
+     * Cache key of a query: lower case, single-spaced, words sorted
+     */
+    static String normalize(String query) {
+        String[] words = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+        Arrays.sort(words);
+        return String.join(" ", words);
+    }
+
+    /**
+     * Run the sweep and publish each distinct vehicle once; returns the number of distinct vehicles
+     */
+    public int run(List<String> queries, int sessions) throws InterruptedException {
+        // Queries that normalize alike are one search
+        Map<String, String> distinct = new LinkedHashMap<>();
+        for (String query : queries) {
+            if (!query.trim().isEmpty()) {
+                distinct.putIfAbsent(normalize(query), query.trim());
+            }
+        }
+        List<String> misses = new ArrayList<>();
+        for (String normalized : distinct.keySet()) {
+            if (cached(normalized) == null) {
+                misses.add(normalized);
+            }
+        }
+        System.out.println("Sweeping " + distinct.size() + " queries: " + (distinct.size() - misses.size()) + " cached, "
+                + misses.size() + " to search on " + Math.min(sessions, misses.size()) + " session(s)");
+
+        Map<String, Future<List<String[]>>> searches = new LinkedHashMap<>();
+        BrowserPool pool = null;
+        ExecutorService executor = null;
+        if (!misses.isEmpty()) {
+            int parallel = Math.min(sessions, misses.size());
+            pool = new BrowserPool("swiftride-sweep", parallel, SwiftRide::createDriver);
+            executor = Executors.newFixedThreadPool(parallel);
+            for (String normalized : misses) {
+                BrowserPool sessionPool = pool;
+                searches.put(normalized, executor.submit(() -> search(sessionPool, normalized, distinct.get(normalized))));
+            }
+        }
+
+        RowSink rows = OutputPipeline.SHARED.dataset("swiftride_sweep");
+        rows.add(new String[]{"Page Title", "Section", "Vehicle/Content Info", "Details"});
+        Set<String> seen = new HashSet<>();
+        Map<String, int[]> breakdown = new TreeMap<>();
+        int cardsSeen = 0;
+        try {
+            // Merge in query order, so which query "owns" a shared vehicle does not depend on thread timing
+            for (String normalized : distinct.keySet()) {
+                List<String[]> cards;
+                Future<List<String[]>> search = searches.get(normalized);
+                if (search == null) {
+                    CachedCards hit = cached(normalized);
+                    cards = hit != null ? hit.cards : new ArrayList<>();
+                } else {
+                    try {
+                        cards = search.get();
+                    } catch (ExecutionException e) {
+                        ScraperLog.warn("sweep search failed", "query", distinct.get(normalized), "error", e.getCause().getMessage());
+                        continue;
+                    }
+                }
+                int fresh = 0;
+                for (String[] fields : cards) {
+                    cardsSeen++;
+                    if (!seen.add(SwiftRide.vehicleIdentity(fields))) {
+                        continue; // already extracted from an earlier query
+                    }
+                    fresh++;
+                    SwiftRide.addVehicleRow(rows, "SwiftRide Search Sweep", "Vehicle " + seen.size(), fields);
+                    VehicleListing listing = SwiftRide.toListing(fields);
+                    breakdown.computeIfAbsent(listing.make + "," + listing.model + "," + (listing.year > 0 ? listing.year : ""),
+                            k -> new int[1])[0]++;
+                }
+                ScraperLog.info("sweep query merged", "query", distinct.get(normalized), "cards", cards.size(), "newVehicles", fresh);
+            }
+        } finally {
+            rows.close();
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        List<String[]> breakdownRows = new ArrayList<>();
+        breakdownRows.add(new String[]{"Make", "Model", "Year", "Vehicles"});
+        for (Map.Entry<String, int[]> group : breakdown.entrySet()) {
+            String[] parts = group.getKey().split(",", -1);
+            breakdownRows.add(new String[]{parts[0], parts[1], parts[2], String.valueOf(group.getValue()[0])});
+        }
+        OutputPipeline.SHARED.publishAll("swiftride_sweep_breakdown", breakdownRows);
+        OutputPipeline.SHARED.flush();
+        System.out.println("Sweep finished: " + seen.size() + " distinct vehicles from " + cardsSeen + " cards");
+        return seen.size();
+    }
+
+    // One search on a pooled session; the cards are cached before they are returned
+    private List<String[]> search(BrowserPool pool, String normalized, String query) throws Exception {
+        WebDriver driver = pool.acquire();
+        boolean healthy = true;
+        try {
+            WebDriverWait wait = new RecordingWait(driver, Duration.ofSeconds(15));
+            CdpTransport.get(driver, SwiftRide.BASE_URL + "/cars");
+            if (!SwiftRide.searchVehicles(wait, query)) {
+                // Unfiltered results must not be cached as this query's cards
+                throw new IllegalStateException("search for '" + query + "' failed");
+            }
+            List<String[]> cards = SwiftRide.readVehicleCards(driver);
+            store(normalized, cards);
+            return cards;
+        } catch (WebDriverException e) {
+            healthy = false;
+            throw e;
+        } finally {
+            if (healthy) {
+                pool.release(driver);
+            } else {
+                pool.discard(driver);
+            }
+        }
+    }
+
+    // Memory first, then the on-disk copy; entries past the TTL count as misses
+    @SuppressWarnings("unchecked")
+    private CachedCards cached(String normalized) {
+        long now = System.currentTimeMillis();
+        CachedCards hit = memory.get(normalized);
+        if (hit != null && now - hit.fetchedAtMillis <= ttlMillis) {
+            return hit;
+        }
+        File file = cacheFile(normalized);
+        if (!file.exists() || now - file.lastModified() > ttlMillis) {
+            return null;
+        }
+        try {
+            List<String[]> cards = new ArrayList<>();
+            for (Object card : (List<Object>) Json.parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))) {
+                List<Object> values = (List<Object>) card;
+                String[] fields = new String[values.size()];
+                for (int f = 0; f < fields.length; f++) {
+                    fields[f] = values.get(f) == null ? null : values.get(f).toString();
+                }
+                cards.add(fields);
+            }
+            hit = new CachedCards(cards, file.lastModified());
+            memory.put(normalized, hit);
+            return hit;
+        } catch (IOException | RuntimeException e) {
+            ScraperLog.warn("ignoring unreadable sweep cache", "file", file.getPath(), "error", e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String normalized, List<String[]> cards) {
+        long now = System.currentTimeMillis();
+        memory.put(normalized, new CachedCards(cards, now));
+        List<Object> json = new ArrayList<>();
+        for (String[] fields : cards) {
+            json.add(Arrays.asList((Object[]) fields));
+        }
+        File file = cacheFile(normalized);
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            Files.write(temp.toPath(), Json.write(json).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            ScraperLog.warn("could not cache sweep results", "query", normalized, "error", e.getMessage());
+        }
+    }
+
+    private File cacheFile(String normalized) {
+        return new File(cacheDirectory, normalized.replaceAll("[^a-z0-9]+", "_") + ".json");
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> queries = args.length > 0 ? Arrays.asList(args)
+                : Arrays.asList(System.getProperty("sweep.queries", DEFAULT_QUERIES).split(","));
+        SwiftRideSweep sweep = new SwiftRideSweep(new File(System.getProperty("sweep.cache", "sweep_cache")),
+                Long.getLong("sweep.ttlSeconds", 1800L) * 1000L);
+        sweep.run(queries, Integer.getInteger("sweep.sessions", 3));
+        PriceStats.SHARED.printSummary("swiftride");
+    }
+}
@@ -0,0 +1,291 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for enterprise.ca and swiftride.net, used for scale and load testing.
+ * Serves the same markup the scrapers rely on (vehicle-list__item cards, price-tag spans, the Tailwind
+ * results grid, cookie banner, alerts, image modals, chat bubble, pagination) at a configurable number
+ * of vehicles / locations per page and a configurable per-request latency.
+ *
+ * Run HertzScraper with -Denterprise.baseUrl=http://localhost:PORT/enterprise and SwiftRide with
+ * -Dswiftride.baseUrl=http://localhost:PORT/swiftride to crawl it instead of the live sites.
+ */
+public class SyntheticRentalSite {
+
+    private static final String[][] MODELS = {
+        {"Honda", "Civic", "sedan"}, {"Honda", "Fit", "hatchback"}, {"Honda", "CR-V", "suv"}, {"Toyota", "Corolla", "sedan"},
+        {"Toyota", "RAV4", "suv"}, {"Ford", "Escape", "suv"}, {"Hyundai", "Elantra", "sedan"}, {"Kia", "Sorento", "suv"},
+        {"Chrysler", "Pacifica", "minivan"}, {"Nissan", "Versa", "sedan"}, {"Chevrolet", "Malibu", "sedan"}, {"Ram", "1500", "pickup"}
+    };
+    private static final String[] ENTERPRISE_CLASSES = {"ECAR", "CCAR", "ICAR", "SCAR", "FCAR", "IFAR", "SFAR", "MVAR", "PPAR"};
+    private static final String[] CITIES = {"Toronto, ON", "Mississauga, ON", "Brampton, ON", "Markham, ON", "Vaughan, ON", "Oakville, ON"};
+
+    private final int vehiclesPerPage;
+    private final int locationCount;
+    private final int pageCount;
+    private final int latencyMillis;
+    private final boolean alerts;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public SyntheticRentalSite(int vehiclesPerPage, int locationCount, int pageCount, int latencyMillis, boolean alerts) {
+        this.vehiclesPerPage = vehiclesPerPage;
+        this.locationCount = locationCount;
+        this.pageCount = pageCount;
+        this.latencyMillis = latencyMillis;
+        this.alerts = alerts;
+    }
+
+    /**
+     * Start serving on the given port (0 picks a free one) and return the bound port
+     */
+    public int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/", this::handle);
+        executor = Executors.newFixedThreadPool(16, runnable -> {
+            Thread thread = new Thread(runnable, "synthetic-site");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            String path = exchange.getRequestURI().getPath();
+            String query = exchange.getRequestURI().getRawQuery();
+            String html = route(path, query);
+            byte[] body = (html == null ? "<html><body><h1>Not Found</h1></body></html>" : html).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(html == null ? 404 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String route(String path, String query) {
+        int page;
+        try {
+            page = Math.max(1, Integer.parseInt(param(query, "page", "1")));
+        } catch (NumberFormatException e) {
+            page = 1;
+        }
+        switch (path) {
+            case "/enterprise/en/car-rental.html": return enterpriseHome();
+            case "/enterprise/en/reserve.html": return enterpriseVehicles(page);
+            case "/enterprise/en/car-rental/locations/canada.html": return enterpriseLocations();
+            case "/enterprise/en/rental-cars/ca/cars.html": return enterpriseContent("Compare Rental Cars – Canada", "p");
+            case "/enterprise/en/reserve/receipts.html": return enterpriseContent("Find a Receipt", "h2");
+            case "/swiftride/cars": return swiftRideCars(param(query, "q", ""), page);
+            case "/swiftride/": return swiftRidePage("Drive Your Dreams Into Reality",
+                    "<p>The only car subscription platform built for rideshare and delivery drivers.</p>");
+            case "/swiftride/how-it-works": return swiftRidePage("How it works in a couple of steps",
+                    "<h3>Apply Online</h3><h3>Sign Agreement</h3><h3>Pick Up Your Car</h3>");
+            case "/swiftride/contact-us": return swiftRidePage("How Can We Help?",
+                    "<a href='mailto:hello@swiftride.net'>hello@swiftride.net</a><h3>Email Support</h3><h3>Live Chat</h3>");
+            default:
+                if (path.startsWith("/enterprise/en/car-rental/locations/canada/")) {
+                    return enterpriseContent("Car Rental Location " + path.substring(path.lastIndexOf('/') + 1), "p");
+                }
+                return null;
+        }
+    }
+
+    private String enterpriseHome() {
+        StringBuilder html = enterpriseShell("Reserve Your Rental Car | Enterprise Rent-A-Car");
+        html.append("<main><h1>Reserve a Rental Car</h1>")
+            .append("<input id='pickupLocationTextBox' type='text' oninput=\"document.getElementById('suggestions').style.display='block'\">")
+            .append("<ul id='suggestions' style='display:none'><li id='location-1019226' class='location-group__item'>")
+            .append("<button data-location-type='airports'><span>Toronto Pearson International Airport</span></button></li></ul>")
+            .append("<select aria-label='Pick-Up Time Selector'><option value='9:00 AM'>9:00 AM</option><option value='10:00 AM'>10:00 AM</option></select>")
+            .append("<select aria-label='Return Time Selector'><option value='9:00 AM'>9:00 AM</option><option value='10:00 AM'>10:00 AM</option></select>")
+            .append("<select id='age'><option value='21'>21</option><option value='25'>25+</option></select>")
+            .append("<button id='continueButton' onclick=\"location.href='reserve.html'\">Browse Vehicles</button></main>");
+        return closeShell(html);
+    }
+
+    private String enterpriseVehicles(int page) {
+        Random random = new Random(page);
+        StringBuilder html = enterpriseShell("Choose a Vehicle Class | Enterprise Rent-A-Car");
+        html.append("<main><h1>Choose a Vehicle Class</h1><ol class='vehicle-list'>");
+        for (int i = 0; i < vehiclesPerPage; i++) {
+            String[] model = MODELS[random.nextInt(MODELS.length)];
+            int dollars = 30 + random.nextInt(120);
+            html.append("<li class='vehicle-list__item'>")
+                .append("<p class='vehicle-item__tour-info mb-0'>").append(ENTERPRISE_CLASSES[random.nextInt(ENTERPRISE_CLASSES.length)]).append("</p>")
+                .append("<h2 class='mb-0'>").append(capitalize(model[2])).append("</h2>")
+                .append("<p class='descriptor mb-0'>").append(model[0]).append(' ').append(model[1]).append(" or similar</p>")
+                .append("<button class='car-item__vehicle-image--clickable' onclick=\"document.getElementById('modal-").append(i)
+                .append("').style.display='block'\"><img src='data:,' alt='vehicle'></button>")
+                .append("<div id='modal-").append(i).append("' class='modal' role='dialog' style='display:none'>")
+                .append("<p>Features: Bluetooth, Backup Camera, Apple CarPlay</p>")
+                .append("<button class='close' aria-label='close' onclick=\"this.parentElement.style.display='none'\">×</button></div>")
+                .append("<span class='rs-price-tag__symbol'>$</span><span class='rs-price-tag__unit'>").append(dollars)
+                .append("</span><span class='rs-price-tag__fraction'>.").append(10 + random.nextInt(90)).append("</span>")
+                .append("<section class='car-item__vehicle-attributes-item'><span class='descriptor mb-0'>Automatic</span>")
+                .append("<span class='descriptor mb-0'>5 People</span><span class='descriptor mb-0'>").append(1 + random.nextInt(4))
+                .append(" Bags</span></section></li>");
+        }
+        html.append("</ol>").append(pagination("reserve.html", page)).append("</main>");
+        return closeShell(html);
+    }
+
+    private String enterpriseLocations() {
+        StringBuilder html = enterpriseShell("Canada Car Rental - Book Now | Enterprise Rent-A-Car");
+        html.append("<main><h1>Canada Car Rental</h1><ul>");
+        for (int i = 0; i < locationCount; i++) {
+            html.append("<li><a href='/enterprise/en/car-rental/locations/canada/location-").append(i).append(".html'>Location ").append(i + 1)
+                .append(' ').append(CITIES[i % CITIES.length]).append("</a></li>");
+        }
+        html.append("</ul></main>");
+        return closeShell(html);
+    }
+
+    private String enterpriseContent(String heading, String blockTag) {
+        StringBuilder html = enterpriseShell(heading + " | Enterprise Rent-A-Car");
+        html.append("<main><h1>").append(heading).append("</h1>");
+        for (int i = 0; i < 10; i++) {
+            html.append('<').append(blockTag).append(">Content block ").append(i + 1)
+                .append(" with enough descriptive text to pass the length filters.</").append(blockTag).append('>');
+        }
+        html.append("</main>");
+        return closeShell(html);
+    }
+
+    private StringBuilder enterpriseShell(String title) {
+        StringBuilder html = new StringBuilder(4096 + vehiclesPerPage * 1024);
+        html.append("<!DOCTYPE html><html><head><title>").append(title).append("</title></head><body>")
+            .append("<div class='cookie-banner'>We use cookies <button onclick=\"this.parentElement.remove()\">CLOSE</button></div>")
+            .append("<header><nav><a href='#'>Careers Link opens in a new window</a></nav></header>");
+        if (alerts) {
+            html.append("<script>alert('Synthetic site alert');</script>");
+        }
+        return html;
+    }
+
+    private String swiftRideCars(String query, int page) {
+        Random random = new Random(31L * page + query.hashCode());
+        String filter = query.trim().toLowerCase();
+        StringBuilder html = new StringBuilder(4096 + vehiclesPerPage * 1024);
+        html.append("<!DOCTYPE html><html><head><title>Swift Ride</title></head><body><main>")
+            .append("<h1>Find Cars Near You</h1>")
+            .append("<input placeholder='Search by make, model, or year...' value='").append(escape(query))
+            .append("' onkeydown=\"if(event.key==='Enter'){location.href='cars?q='+encodeURIComponent(this.value)}\">")
+            .append("<div class='grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-2 xl:grid-cols-3 gap-6'>");
+        int emitted = 0;
+        for (int i = 0; emitted < vehiclesPerPage && i < vehiclesPerPage * 20; i++) {
+            String[] model = MODELS[random.nextInt(MODELS.length)];
+            int year = 2012 + random.nextInt(12);
+            String name = year + " " + model[0] + " " + model[1];
+            if (!filter.isEmpty() && !name.toLowerCase().contains(filter)) {
+                continue;
+            }
+            emitted++;
+            double miles = random.nextInt(300) / 10.0;
+            html.append("<div class='rounded-lg border text-card-foreground shadow-sm flex flex-col w-full cursor-pointer'>")
+                .append("<h3 class='font-semibold text-[#57E667]'>").append(model[0]).append(' ').append(model[1]).append(" - EX CVT</h3>")
+                .append("<p class='text-gray-400 body-sm'>").append(year).append("</p>")
+                .append("<span class='text-3xl font-bold text-white'>$").append(299 + random.nextInt(300)).append("</span>")
+                .append("<span class='text-sm text-gray-400 font-medium'>/week</span>")
+                .append("<span class='px-2 bg-[#57E667]/20 text-[#57E667]'>Available</span>")
+                .append("<div class='inline-flex items-center text-xs bg-gray-800'>").append(model[2]).append("</div>")
+                .append("<div class='inline-flex items-center text-xs bg-gray-800'>gasoline</div>")
+                .append("<p class='text-xs text-gray-400 leading-relaxed'>Bluetooth, Backup Camera</p>")
+                .append("<span class='inline-flex items-center'>").append(miles).append(" mi • ").append(CITIES[random.nextInt(CITIES.length)]).append("</span>")
+                .append("</div>");
+        }
+        html.append("</div>").append(pagination("cars?q=" + escape(query) + "&", page))
+            .append("</main>").append(chatBubble()).append("</body></html>");
+        return html.toString();
+    }
+
+    private String swiftRidePage(String heading, String content) {
+        return "<!DOCTYPE html><html><head><title>Swift Ride</title></head><body><main><h1>" + heading + "</h1>"
+            + content + "</main>" + chatBubble() + "</body></html>";
+    }
+
+    private static String chatBubble() {
+        return "<div id='cw-bubble-holder'><button onclick=\"document.getElementById('cw-chat').style.display='block'\">Chat</button>"
+            + "<button onclick=\"document.getElementById('cw-bubble-holder').style.display='none'\">Close</button></div>"
+            + "<div id='cw-chat' style='display:none'>How can we help?</div>";
+    }
+
+    private String pagination(String base, int page) {
+        StringBuilder html = new StringBuilder("<nav class='pagination'>");
+        String separator = base.endsWith("&") ? "" : "?";
+        for (int p = 1; p <= pageCount; p++) {
+            html.append("<a class='pagination__page").append(p == page ? " active" : "").append("' href='")
+                .append(base).append(separator).append("page=").append(p).append("'>").append(p).append("</a>");
+        }
+        return html.append("</nav>").toString();
+    }
+
+    private static String closeShell(StringBuilder html) {
+        return html.append("<footer>⛔DO NOT ROLLOUT</footer></body></html>").toString();
+    }
+
+    private static String param(String query, String name, String fallback) {
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                    return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return fallback;
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("'", "&#39;").replace("<", "&lt;");
+    }
+
+    /**
+     * Serve the synthetic site until killed: SyntheticRentalSite [port] [vehiclesPerPage] [locations] [pages] [latencyMs]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+        int vehicles = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int locations = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int pages = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        int latency = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        SyntheticRentalSite site = new SyntheticRentalSite(vehicles, locations, pages, latency, false);
+        int boundPort = site.start(port);
+        System.out.println("Synthetic rental site running on http://localhost:" + boundPort);
+        System.out.println("Enterprise: -Denterprise.baseUrl=http://localhost:" + boundPort + "/enterprise");
+        System.out.println("SwiftRide:  -Dswiftride.baseUrl=http://localhost:" + boundPort + "/swiftride");
+    }
+}
@@ -0,0 +1,118 @@
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs several lightweight crawl tasks as tabs of one Chrome instance instead of one browser per task.
+ * Up to maxTabs pages load in parallel in the background while the scheduler extracts from the
+ * oldest tab; every window-handle switch happens under the scheduler lock and always returns
+ * to the original tab, so callers never see the driver pointed at a half-finished tab.
+ */
+public class TabScheduler {
+
+    /**
+     * A page visit to run in its own tab: the URL to open and the extraction to run once it has loaded
+     */
+    public interface TabTask {
+        String url();
+
+        void extract(WebDriver driver) throws Exception;
+    }
+
+    private final WebDriver driver;
+    private final int maxTabs;
+
+    public TabScheduler(WebDriver driver, int maxTabs) {
+        this.driver = driver;
+        this.maxTabs = Math.max(1, maxTabs);
+    }
+
+    /**
+     * Tab count requested with -Dscraper.tabs=N; 0 or 1 means the classic one-page-at-a-time crawl
+     */
+    public static int configuredTabs() {
+        return Integer.getInteger("scraper.tabs", 0);
+    }
+
+    /**
+     * Run all tasks, keeping up to maxTabs tabs loading at once. Tasks are extracted in
+     * submission order so output rows keep the same order as a sequential crawl.
+     */
+    public synchronized void runAll(List<? extends TabTask> tasks) {
+        String originHandle = driver.getWindowHandle();
+        Deque<TabTask> pending = new ArrayDeque<>(tasks);
+        Map<String, TabTask> active = new LinkedHashMap<>();
+
+        try {
+            while (!pending.isEmpty() || !active.isEmpty()) {
+                // Fill free slots: each new tab starts loading without blocking the driver
+                while (active.size() < maxTabs && !pending.isEmpty()) {
+                    TabTask task = pending.poll();
+                    try {
+                        active.put(openTab(originHandle, task.url()), task);
+                    } catch (Exception e) {
+                        ScraperLog.warn("could not open tab", "url", task.url(), "error", e.getMessage());
+                        driver.switchTo().window(originHandle);
+                    }
+                }
+                if (active.isEmpty()) {
+                    continue;
+                }
+
+                // Extract from the oldest tab; the others keep loading meanwhile
+                Map.Entry<String, TabTask> next = active.entrySet().iterator().next();
+                active.remove(next.getKey());
+                try {
+                    driver.switchTo().window(next.getKey());
+                    next.getValue().extract(driver);
+                } catch (Exception e) {
+                    ScraperLog.warn("tab extraction failed", "url", next.getValue().url(), "error", e.getMessage());
+                } finally {
+                    closeTab(next.getKey(), originHandle);
+                }
+            }
+        } finally {
+            // Never leave stray tabs behind, even if a task blew up mid-run
+            for (String handle : new ArrayList<>(active.keySet())) {
+                closeTab(handle, originHandle);
+            }
+            driver.switchTo().window(originHandle);
+        }
+    }
+
+    private String openTab(String originHandle, String url) {
+        SessionHealth.pageLoaded(driver);
+        driver.switchTo().window(originHandle);
+        Set<String> before = driver.getWindowHandles();
+        ((JavascriptExecutor) driver).executeScript("window.open(arguments[0], '_blank');", url);
+        for (String handle : driver.getWindowHandles()) {
+            if (!before.contains(handle)) {
+                return handle;
+            }
+        }
+        // Popup was blocked: open the tab through WebDriver and start the navigation from script
+        driver.switchTo().newWindow(WindowType.TAB);
+        String handle = driver.getWindowHandle();
+        ((JavascriptExecutor) driver).executeScript("window.location.href = arguments[0];", url);
+        driver.switchTo().window(originHandle);
+        return handle;
+    }
+
+    private void closeTab(String handle, String originHandle) {
+        try {
+            CdpTransport.close(driver, handle);
+            driver.switchTo().window(handle);
+            driver.close();
+        } catch (Exception e) {
+            ScraperLog.debug("tab already closed", "error", e.getMessage());
+        }
+        driver.switchTo().window(originHandle);
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.Locale;
+
+/**
+ * One vehicle offer scraped from either site, with the free text broken down into
+ * the attributes used for cross-site comparison (year, make, model, body type, transmission)
+ */
+public class VehicleListing {
+
+    public static final String ENTERPRISE = "enterprise";
+    public static final String SWIFTRIDE = "swiftride";
+
+    private static final String[] MAKES = {
+        "acura", "alfa romeo", "audi", "bmw", "buick", "cadillac", "chevrolet", "chrysler", "dodge", "fiat",
+        "ford", "genesis", "gmc", "honda", "hyundai", "infiniti", "jaguar", "jeep", "kia", "land rover",
+        "lexus", "lincoln", "mazda", "mercedes-benz", "mini", "mitsubishi", "nissan", "polestar", "porsche",
+        "ram", "subaru", "tesla", "toyota", "volkswagen", "volvo"
+    };
+
+    private static final String[] BODY_TYPES = {
+        "sedan", "suv", "hatchback", "coupe", "convertible", "minivan", "van", "pickup", "truck", "wagon", "crossover"
+    };
+
+    public final String site;
+    public final String location;
+    public final String title;
+    public final int year;
+    public final String make;
+    public final String model;
+    public final String bodyType;
+    public final String transmission;
+    public final PriceParser.Price price;
+
+    public VehicleListing(String site, String location, String title, int year, String make, String model,
+                          String bodyType, String transmission, PriceParser.Price price) {
+        this.site = site;
+        this.location = location;
+        this.title = title;
+        this.year = year;
+        this.make = make;
+        this.model = model;
+        this.bodyType = bodyType;
+        this.transmission = transmission;
+        this.price = price;
+    }
+
+    /**
+     * Build a listing from SwiftRide card text such as "2017 Silver Honda Fit - EX CVT" plus its basics line
+     */
+    public static VehicleListing fromSwiftRide(String location, String cardText, String basics, PriceParser.Price price) {
+        String text = (cardText + " " + basics).toLowerCase(Locale.ROOT);
+        return new VehicleListing(SWIFTRIDE, location, cardText, findYear(text), findMake(text), findModel(text),
+                findBodyType(text), findTransmission(text), price);
+    }
+
+    /**
+     * Build a listing from an Enterprise card: ACRISS class code (e.g. "ICAR"), class name and
+     * "Toyota Corolla or similar" descriptor
+     */
+    public static VehicleListing fromEnterprise(String location, String classCode, String className,
+                                                String descriptor, String transmission, PriceParser.Price price) {
+        String text = (className + " " + descriptor + " " + transmission).toLowerCase(Locale.ROOT).replace(" or similar", "");
+        String bodyType = findBodyType(text);
+        String gearbox = findTransmission(text);
+        // Fall back to the ACRISS code: 2nd letter is the body, 3rd letter the transmission
+        String code = classCode == null ? "" : classCode.trim().toUpperCase(Locale.ROOT);
+        if (code.length() == 4) {
+            if (bodyType.isEmpty()) {
+                bodyType = acrissBodyType(code.charAt(1));
+            }
+            if (gearbox.isEmpty()) {
+                gearbox = "AMBD".indexOf(code.charAt(2)) >= 0 ? "automatic" : "MNC".indexOf(code.charAt(2)) >= 0 ? "manual" : "";
+            }
+        }
+        return new VehicleListing(ENTERPRISE, location, className + " (" + descriptor + ")", findYear(text),
+                findMake(text), findModel(text), bodyType, gearbox, price);
+    }
+
+    /**
+     * Stable identity of this listing within its site, used as a cache / dedupe key
+     */
+    public String key() {
+        return site + "|" + location + "|" + title;
+    }
+
+    static int findYear(String text) {
+        for (int i = 0; i + 4 <= text.length(); i++) {
+            if ((i == 0 || !Character.isDigit(text.charAt(i - 1))) && (i + 4 == text.length() || !Character.isDigit(text.charAt(i + 4)))) {
+                char c0 = text.charAt(i), c1 = text.charAt(i + 1);
+                if (((c0 == '1' && c1 == '9') || (c0 == '2' && c1 == '0'))
+                        && Character.isDigit(text.charAt(i + 2)) && Character.isDigit(text.charAt(i + 3))) {
+                    return Integer.parseInt(text.substring(i, i + 4));
+                }
+            }
+        }
+        return 0;
+    }
+
+    static String findMake(String text) {
+        for (String make : MAKES) {
+            if (indexOfWord(text, make) >= 0) {
+                return make;
+            }
+        }
+        if (indexOfWord(text, "chevy") >= 0) {
+            return "chevrolet";
+        }
+        if (indexOfWord(text, "vw") >= 0) {
+            return "volkswagen";
+        }
+        return "";
+    }
+
+    // The model is the word right after the make ("honda fit - ex cvt" -> "fit")
+    static String findModel(String text) {
+        String make = findMake(text);
+        if (make.isEmpty()) {
+            return "";
+        }
+        int start = indexOfWord(text, make) + make.length();
+        while (start < text.length() && !isWordChar(text.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < text.length() && (isWordChar(text.charAt(end)) || text.charAt(end) == '-')) {
+            end++;
+        }
+        return text.substring(start, end);
+    }
+
+    static String findBodyType(String text) {
+        for (String body : BODY_TYPES) {
+            if (indexOfWord(text, body) >= 0) {
+                return body.equals("truck") ? "pickup" : body;
+            }
+        }
+        return "";
+    }
+
+    static String findTransmission(String text) {
+        if (indexOfWord(text, "manual") >= 0) {
+            return "manual";
+        }
+        if (indexOfWord(text, "automatic") >= 0 || indexOfWord(text, "cvt") >= 0 || text.contains("continuously variable")) {
+            return "automatic";
+        }
+        return "";
+    }
+
+    private static String acrissBodyType(char c) {
+        switch (c) {
+            case 'B': case 'C': case 'D': return "sedan";
+            case 'F': case 'G': case 'J': return "suv";
+            case 'V': return "minivan";
+            case 'W': return "wagon";
+            case 'P': case 'Q': return "pickup";
+            case 'T': return "convertible";
+            case 'E': return "coupe";
+            default: return "";
+        }
+    }
+
+    private static int indexOfWord(String text, String word) {
+        int from = 0;
+        while (true) {
+            int index = text.indexOf(word, from);
+            if (index < 0) {
+                return -1;
+            }
+            int end = index + word.length();
+            if ((index == 0 || !isWordChar(text.charAt(index - 1))) && (end == text.length() || !isWordChar(text.charAt(end)))) {
+                return index;
+            }
+            from = index + 1;
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    @Override
+    public String toString() {
+        return site + ": " + (year > 0 ? year + " " : "") + make + " " + model
+                + (bodyType.isEmpty() ? "" : " " + bodyType)
+                + (transmission.isEmpty() ? "" : " " + transmission)
+                + (price == null ? "" : " @ " + price);
+    }
+}
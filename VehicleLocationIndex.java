@@ -0,0 +1,293 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory grid index over vehicle locations for "nearest available Honda under $450/week to point P" queries.
+ *
+ * SwiftRide cards show their location as "12.3 mi • Toronto, ON". The area part is resolved to coordinates
+ * through a small built-in gazetteer (extend it with -Dgeo.gazetteer=file.csv, lines "name,lat,lon");
+ * a literal "lat, lon" is used as is. Listings are bucketed into 0.1° cells and a query scans rings of cells
+ * outward from P, stopping as soon as no unvisited cell can hold anything closer than the k-th hit so far.
+ * A listing that is crawled again replaces its previous position.
+ */
+public class VehicleLocationIndex {
+
+    public static final VehicleLocationIndex SHARED = new VehicleLocationIndex();
+
+    private static final double CELL_DEGREES = 0.1;
+    private static final int MAX_RINGS = 100;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final Map<String, double[]> GAZETTEER = new LinkedHashMap<>();
+
+    static {
+        String[][] places = {
+            {"toronto", "43.6532", "-79.3832"}, {"north york", "43.7615", "-79.4111"}, {"scarborough", "43.7764", "-79.2318"},
+            {"etobicoke", "43.6205", "-79.5132"}, {"mississauga", "43.5890", "-79.6441"}, {"brampton", "43.7315", "-79.7624"},
+            {"markham", "43.8561", "-79.3370"}, {"vaughan", "43.8361", "-79.4983"}, {"richmond hill", "43.8828", "-79.4403"},
+            {"oakville", "43.4675", "-79.6877"}, {"burlington", "43.3255", "-79.7990"}, {"hamilton", "43.2557", "-79.8711"},
+            {"pickering", "43.8384", "-79.0868"}, {"ajax", "43.8509", "-79.0204"}, {"oshawa", "43.8971", "-78.8658"},
+            {"toronto pearson international airport", "43.6777", "-79.6248"},
+            {"boston", "42.3601", "-71.0589"}, {"cambridge", "42.3736", "-71.1097"}, {"somerville", "42.3876", "-71.0995"},
+            {"brookline", "42.3318", "-71.1212"}, {"newton", "42.3370", "-71.2092"}, {"quincy", "42.2529", "-71.0023"},
+            {"new york", "40.7128", "-74.0060"}, {"brooklyn", "40.6782", "-73.9442"}, {"jersey city", "40.7178", "-74.0431"},
+            {"chicago", "41.8781", "-87.6298"}, {"los angeles", "34.0522", "-118.2437"}, {"san francisco", "37.7749", "-122.4194"},
+            {"seattle", "47.6062", "-122.3321"}, {"miami", "25.7617", "-80.1918"}, {"atlanta", "33.7490", "-84.3880"},
+            {"dallas", "32.7767", "-96.7970"}, {"houston", "29.7604", "-95.3698"}, {"denver", "39.7392", "-104.9903"}
+        };
+        for (String[] place : places) {
+            GAZETTEER.put(place[0], new double[]{Double.parseDouble(place[1]), Double.parseDouble(place[2])});
+        }
+        String extra = System.getProperty("geo.gazetteer");
+        if (extra != null) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(extra))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(",");
+                    if (parts.length == 3) {
+                        GAZETTEER.put(normalize(parts[0]), new double[]{Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim())});
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                ScraperLog.warn("could not load gazetteer", "file", extra, "error", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A listing found by a nearest query and its great-circle distance from the query point
+     */
+    public static final class Hit {
+        public final VehicleListing listing;
+        public final double latitude;
+        public final double longitude;
+        public final double distanceKm;
+
+        Hit(VehicleListing listing, double latitude, double longitude, double distanceKm) {
+            this.listing = listing;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    private static final class Point {
+        final VehicleListing listing;
+        final double latitude;
+        final double longitude;
+        final long cell;
+
+        Point(VehicleListing listing, double latitude, double longitude) {
+            this.listing = listing;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cellKey(cellRow(latitude), cellColumn(longitude));
+        }
+    }
+
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final Map<String, Point> byKey = new HashMap<>();
+
+    /**
+     * Area part of a card location: "12.3 mi • Toronto, ON" -> "Toronto, ON"
+     */
+    public static String areaOf(String locationText) {
+        if (locationText == null) {
+            return "";
+        }
+        int bullet = locationText.indexOf('•');
+        return (bullet >= 0 ? locationText.substring(bullet + 1) : locationText).trim();
+    }
+
+    /**
+     * Coordinates {lat, lon} of an area or "lat, lon" text, or null when the place is unknown
+     */
+    public static double[] geocode(String locationText) {
+        String area = areaOf(locationText);
+        String[] numbers = area.split("\\s*,\\s*");
+        if (numbers.length == 2) {
+            try {
+                return new double[]{Double.parseDouble(numbers[0]), Double.parseDouble(numbers[1])};
+            } catch (NumberFormatException e) {
+                // not a coordinate pair, fall through to the gazetteer
+            }
+        }
+        // Longest gazetteer name that starts the area, so "Toronto, ON" and "Richmond Hill ON" both resolve
+        String normalized = normalize(area);
+        double[] best = null;
+        int bestLength = 0;
+        for (Map.Entry<String, double[]> place : GAZETTEER.entrySet()) {
+            String name = place.getKey();
+            if (name.length() > bestLength && normalized.startsWith(name)
+                    && (normalized.length() == name.length() || normalized.charAt(name.length()) == ' ')) {
+                best = place.getValue();
+                bestLength = name.length();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Index (or move) a listing at its location; returns false when the location cannot be resolved
+     */
+    public synchronized boolean put(VehicleListing listing) {
+        double[] position = geocode(listing.location);
+        if (position == null) {
+            return false;
+        }
+        remove(listing.key());
+        Point point = new Point(listing, position[0], position[1]);
+        cells.computeIfAbsent(point.cell, c -> new ArrayList<>()).add(point);
+        byKey.put(listing.key(), point);
+        return true;
+    }
+
+    public synchronized void remove(String listingKey) {
+        Point old = byKey.remove(listingKey);
+        if (old != null) {
+            List<Point> cell = cells.get(old.cell);
+            cell.remove(old);
+            if (cell.isEmpty()) {
+                cells.remove(old.cell);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return byKey.size();
+    }
+
+    /**
+     * The k listings closest to (latitude, longitude) that match the make (null for any) and cost at most
+     * maxPerWeekMinor per week (0 for no limit), nearest first
+     */
+    public synchronized List<Hit> nearest(double latitude, double longitude, String make, long maxPerWeekMinor, int k) {
+        String makeFilter = make == null || make.isEmpty() ? null : make.toLowerCase(Locale.ROOT);
+        PriorityQueue<Hit> best = new PriorityQueue<>(k, (a, b) -> Double.compare(b.distanceKm, a.distanceKm));
+        int row = cellRow(latitude);
+        int column = cellColumn(longitude);
+        int visited = 0;
+        for (int ring = 0; visited < byKey.size(); ring++) {
+            if (ring > MAX_RINGS) {
+                // Whatever is left is far away: one linear pass is cheaper than thousands of empty cells
+                best.clear();
+                for (List<Point> cell : cells.values()) {
+                    for (Point point : cell) {
+                        offer(best, k, point, latitude, longitude, makeFilter, maxPerWeekMinor);
+                    }
+                }
+                break;
+            }
+            // Ring r+1 is at least r cell sides from P; use the narrowest column width the ring can reach
+            double cellKm = CELL_DEGREES * KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(Math.min(89, Math.abs(latitude) + (ring + 1) * CELL_DEGREES))));
+            if (best.size() == k && ring > 0 && (ring - 1) * cellKm > best.peek().distanceKm) {
+                break;
+            }
+            for (int dr = -ring; dr <= ring; dr++) {
+                for (int dc = -ring; dc <= ring; dc++) {
+                    if (Math.abs(dr) != ring && Math.abs(dc) != ring) {
+                        continue; // inner cells were scanned by earlier rings
+                    }
+                    List<Point> cell = cells.get(cellKey(row + dr, column + dc));
+                    if (cell == null) {
+                        continue;
+                    }
+                    visited += cell.size();
+                    for (Point point : cell) {
+                        offer(best, k, point, latitude, longitude, makeFilter, maxPerWeekMinor);
+                    }
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort((a, b) -> Double.compare(a.distanceKm, b.distanceKm));
+        return hits;
+    }
+
+    private static void offer(PriorityQueue<Hit> best, int k, Point point, double latitude, double longitude,
+                              String makeFilter, long maxPerWeekMinor) {
+        VehicleListing listing = point.listing;
+        if ((makeFilter != null && !makeFilter.equals(listing.make))
+                || (maxPerWeekMinor > 0 && (listing.price == null || listing.price.perWeekMinor() > maxPerWeekMinor))) {
+            return;
+        }
+        double distance = haversineKm(latitude, longitude, point.latitude, point.longitude);
+        if (best.size() < k) {
+            best.add(new Hit(listing, point.latitude, point.longitude, distance));
+        } else if (distance < best.peek().distanceKm) {
+            best.poll();
+            best.add(new Hit(listing, point.latitude, point.longitude, distance));
+        }
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static int cellRow(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static int cellColumn(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9 ]", " ").replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * Offline query over a crawl: VehicleLocationIndex LAT LON [make] [max per week, e.g. 450] [k]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java VehicleLocationIndex LAT LON [make] [maxPerWeek] [k]");
+            return;
+        }
+        VehicleLocationIndex index = new VehicleLocationIndex();
+        int unresolved = 0;
+        File file = new File("swiftride_data.csv");
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] row = line.split(",", -1);
+                if (row.length < 4 || !row[3].contains("Location:")) {
+                    continue;
+                }
+                // "Price: $449 /week | Location: 12.3 mi • Toronto ON | Status: ..."
+                String[] details = row[3].split("\\|");
+                PriceParser.Price price = PriceParser.parse(details[0], "USD", PriceParser.BillingPeriod.WEEK);
+                String location = details.length > 1 ? areaOf(details[1].replace("Location:", "")) : "";
+                if (!index.put(VehicleListing.fromSwiftRide(location, row[2], "", price))) {
+                    unresolved++;
+                }
+            }
+        }
+        System.out.println("Indexed " + index.size() + " vehicles (" + unresolved + " with unknown locations)");
+
+        String make = args.length > 2 ? args[2] : null;
+        long maxPerWeek = args.length > 3 ? Math.round(Double.parseDouble(args[3]) * 100) : 0;
+        int k = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        for (Hit hit : index.nearest(Double.parseDouble(args[0]), Double.parseDouble(args[1]), make, maxPerWeek, k)) {
+            System.out.println(String.format("%.1f km | %s | %s", hit.distanceKm, hit.listing.location, hit.listing));
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory inverted index that links equivalent vehicles across Enterprise and SwiftRide.
+ * Make, model, body type and transmission are indexed as field-prefixed tokens, and the model
+ * also as character trigrams so near spellings ("CR-V" / "CRV", "Civic" / "Civic Hybrid") still match.
+ * Posting lists are plain int arrays, so the index stays compact at hundreds of thousands of rows.
+ *
+ * Postings are kept per site, and a query only walks the selective ones (model and model trigrams) of the
+ * target site; trigram lists longer than -Dmatch.maxPosting (default 2000) are skipped. Make, body type and
+ * transmission, shared by a large part of the catalogue, are scored by comparing the candidates' fields,
+ * so a match costs the size of its candidate set rather than of the catalogue.
+ */
+public class VehicleMatchIndex {
+
+    private static final int MAKE_WEIGHT = 4;
+    private static final int MODEL_WEIGHT = 4;
+    private static final int MODEL_GRAM_WEIGHT = 1;
+    private static final int BODY_WEIGHT = 2;
+    private static final int TRANSMISSION_WEIGHT = 1;
+    private static final int MIN_SCORE = MAKE_WEIGHT;
+    private static final int MAX_POSTING = Integer.getInteger("match.maxPosting", 2000);
+
+    /**
+     * A candidate listing from the other site with its similarity score
+     */
+    public static final class Match {
+        public final VehicleListing listing;
+        public final int score;
+
+        Match(VehicleListing listing, int score) {
+            this.listing = listing;
+            this.score = score;
+        }
+    }
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private int[][] postings = new int[256][];
+    private int[] postingSizes = new int[256];
+    private final List<VehicleListing> listings = new ArrayList<>();
+
+    // Scratch buffers reused across queries (guarded by the index lock)
+    private int[] scores = new int[1024];
+    private boolean[] touchedMark = new boolean[1024];
+    private int[] touched = new int[1024];
+
+    public synchronized int size() {
+        return listings.size();
+    }
+
+    /**
+     * Add a listing and return its document id
+     */
+    public synchronized int add(VehicleListing listing) {
+        int docId = listings.size();
+        listings.add(listing);
+        List<String> terms = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        collectBroadTerms(listing, terms, weights);
+        collectSelectiveTerms(listing, terms, weights);
+        for (String term : terms) {
+            String key = listing.site + "|" + term;
+            Integer termId = termIds.get(key);
+            if (termId == null) {
+                termId = termIds.size();
+                termIds.put(key, termId);
+                if (termId == postings.length) {
+                    postings = Arrays.copyOf(postings, termId * 2);
+                    postingSizes = Arrays.copyOf(postingSizes, termId * 2);
+                }
+                postings[termId] = new int[4];
+            }
+            int[] list = postings[termId];
+            int size = postingSizes[termId];
+            // Same term twice for one listing (repeated trigram) only counts once
+            if (size > 0 && list[size - 1] == docId) {
+                continue;
+            }
+            if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+                postings[termId] = list;
+            }
+            list[size] = docId;
+            postingSizes[termId] = size + 1;
+        }
+        return docId;
+    }
+
+    /**
+     * Find the listings on targetSite most similar to the query, best first
+     */
+    public synchronized List<Match> match(VehicleListing query, String targetSite, int limit) {
+        if (scores.length < listings.size()) {
+            scores = new int[Math.max(listings.size(), scores.length * 2)];
+            touchedMark = new boolean[scores.length];
+        }
+        int touchedCount = 0;
+        List<String> terms = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        collectSelectiveTerms(query, terms, weights);
+        if (terms.isEmpty()) {
+            // No model to go on: same-make listings are the only candidates that can reach MIN_SCORE
+            addTerm(terms, weights, "mk:", query.make, 0);
+        }
+        int smallest = -1;
+        int walked = 0;
+        for (int t = 0; t < terms.size(); t++) {
+            Integer termId = termIds.get(targetSite + "|" + terms.get(t));
+            if (termId == null) {
+                continue;
+            }
+            int size = postingSizes[termId];
+            if (smallest < 0 || size < postingSizes[smallest]) {
+                smallest = termId;
+            }
+            if (size > MAX_POSTING && terms.get(t).startsWith("g3:")) {
+                continue; // a trigram half the catalogue shares says little and costs a full scan
+            }
+            touchedCount = score(termId, weights.get(t), touchedCount);
+            walked++;
+        }
+        if (walked == 0 && smallest >= 0) {
+            touchedCount = score(smallest, 0, touchedCount); // every trigram was common: take the rarest as candidates
+        }
+        // Broad fields only for the candidates
+        for (int i = 0; i < touchedCount; i++) {
+            VehicleListing candidate = listings.get(touched[i]);
+            scores[touched[i]] += fieldWeight(query.make, candidate.make, MAKE_WEIGHT)
+                    + fieldWeight(query.bodyType, candidate.bodyType, BODY_WEIGHT)
+                    + fieldWeight(query.transmission, candidate.transmission, TRANSMISSION_WEIGHT);
+        }
+
+        PriorityQueue<Match> best = new PriorityQueue<>((a, b) -> Integer.compare(a.score, b.score));
+        for (int i = 0; i < touchedCount; i++) {
+            int docId = touched[i];
+            int score = scores[docId];
+            scores[docId] = 0;
+            touchedMark[docId] = false;
+            VehicleListing candidate = listings.get(docId);
+            if (score < MIN_SCORE || candidate == query || !candidate.site.equals(targetSite)) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(new Match(candidate, score));
+            } else if (best.peek().score < score) {
+                best.poll();
+                best.add(new Match(candidate, score));
+            }
+        }
+        List<Match> result = new ArrayList<>(best);
+        result.sort((a, b) -> Integer.compare(b.score, a.score));
+        return result;
+    }
+
+    // Add a posting list's weight to its documents, recording documents seen for the first time
+    private int score(int termId, int weight, int touchedCount) {
+        int[] list = postings[termId];
+        for (int p = 0, size = postingSizes[termId]; p < size; p++) {
+            int docId = list[p];
+            if (!touchedMark[docId]) {
+                touchedMark[docId] = true;
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = docId;
+            }
+            scores[docId] += weight;
+        }
+        return touchedCount;
+    }
+
+    private static int fieldWeight(String queryValue, String candidateValue, int weight) {
+        return !queryValue.isEmpty() && queryValue.equals(candidateValue) ? weight : 0;
+    }
+
+    // Make is only walked for model-less queries; body type and transmission are never walked, so they get no
+    // postings and are scored per candidate instead
+    private static void collectBroadTerms(VehicleListing listing, List<String> terms, List<Integer> weights) {
+        addTerm(terms, weights, "mk:", listing.make, MAKE_WEIGHT);
+    }
+
+    private static void collectSelectiveTerms(VehicleListing listing, List<String> terms, List<Integer> weights) {
+        addTerm(terms, weights, "md:", listing.model, MODEL_WEIGHT);
+        String model = listing.model.replace("-", "");
+        if (!model.isEmpty()) {
+            String padded = "^" + model + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addTerm(terms, weights, "g3:", padded.substring(i, i + 3), MODEL_GRAM_WEIGHT);
+            }
+        }
+    }
+
+    private static void addTerm(List<String> terms, List<Integer> weights, String field, String value, int weight) {
+        if (!value.isEmpty()) {
+            terms.add(field + value);
+            weights.add(weight);
+        }
+    }
+
+    /**
+     * Rebuild listings from the CSV files written by HertzScraper and SwiftRide
+     * and write the best cross-site match for every SwiftRide vehicle
+     */
+    public static void main(String[] args) {
+        String hertzFile = args.length > 0 ? args[0] : "hertz_vehicles_complete.csv";
+        String swiftRideFile = args.length > 1 ? args[1] : "swiftride_data.csv";
+
+        VehicleMatchIndex index = new VehicleMatchIndex();
+        List<VehicleListing> swiftRideListings = new ArrayList<>();
+        try {
+            for (String[] row : readCsv(hertzFile)) {
+                if (row[1].startsWith("Vehicle Option")) {
+                    index.add(enterpriseFromRow(row));
+                }
+            }
+            for (String[] row : readCsv(swiftRideFile)) {
+                if (row[1].contains("Vehicle")) {
+                    VehicleListing listing = swiftRideFromRow(row);
+                    swiftRideListings.add(listing);
+                    index.add(listing);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file: " + e.getMessage());
+            return;
+        }
+        System.out.println("Indexed " + index.size() + " listings");
+
+        try (FileWriter csvWriter = new FileWriter("cross_site_matches.csv")) {
+            csvWriter.append("SwiftRide Vehicle,Enterprise Match,Score\n");
+            for (VehicleListing listing : swiftRideListings) {
+                List<Match> matches = index.match(listing, VehicleListing.ENTERPRISE, 1);
+                String best = matches.isEmpty() ? "No match" : matches.get(0).listing.toString();
+                String score = matches.isEmpty() ? "0" : String.valueOf(matches.get(0).score);
+                csvWriter.append(listing.toString().replace(",", "")).append(",")
+                        .append(best.replace(",", "")).append(",").append(score).append("\n");
+                System.out.println(listing + " -> " + best);
+            }
+            System.out.println("Cross-site matches saved to cross_site_matches.csv");
+        } catch (IOException e) {
+            System.err.println("Error writing to CSV file: " + e.getMessage());
+        }
+    }
+
+    // "ICAR - Intermediate (Toyota Corolla or similar)" / "Price: $ 45.99 | Automatic | 5 | 3 | ..."
+    private static VehicleListing enterpriseFromRow(String[] row) {
+        String info = row[2];
+        int dash = info.indexOf(" - ");
+        int paren = info.lastIndexOf('(');
+        String code = dash > 0 ? info.substring(0, dash) : "";
+        String name = info.substring(dash > 0 ? dash + 3 : 0, paren > dash ? paren : info.length()).trim();
+        String descriptor = paren > dash ? info.substring(paren + 1).replace(")", "") : "";
+        String[] details = row[3].split("\\|");
+        PriceParser.Price price = PriceParser.parse(details[0], "CAD", PriceParser.BillingPeriod.DAY);
+        String transmission = details.length > 1 ? details[1] : "";
+        return VehicleListing.fromEnterprise(HertzScraper.PICKUP_LOCATION, code, name, descriptor, transmission, price);
+    }
+
+    // "2017 Silver Honda Fit - EX CVT  sedan - gasoline | ..." / "Price: $449 /week | Location: ... | Status: ..."
+    private static VehicleListing swiftRideFromRow(String[] row) {
+        String[] details = row[3].split("\\|");
+        PriceParser.Price price = PriceParser.parse(details[0], "USD", PriceParser.BillingPeriod.WEEK);
+        String location = details.length > 1 ? details[1].replace("Location:", "").trim() : "";
+        return VehicleListing.fromSwiftRide(location, row[2], "", price);
+    }
+
+    private static List<String[]> readCsv(String fileName) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line = reader.readLine(); // skip header
+            while ((line = reader.readLine()) != null) {
+                String[] row = line.split(",", -1);
+                if (row.length >= 4) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+}